@@ -0,0 +1,224 @@
+package domain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * The BitBoard class keeps a packed representation of the stones on a Board.
+ * Every player has a bitset with one bit per square (row * size + column) and a
+ * second bitset, the heavy plane, that marks the stones with value 2. The board
+ * keeps it up to date on every token change, so occupancy and value queries are
+ * answered with word operations instead of walking the squares.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class BitBoard implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private int size;
+	private long[][] stones;
+	private long[][] heavy;
+
+	/**
+	 * Constructs an empty BitBoard for a board of the given size.
+	 *
+	 * @param size The size of the board, indicating the dimensions.
+	 */
+	public BitBoard(int size) {
+		this.size = size;
+		int words = (size * size + 63) >>> 6;
+		stones = new long[2][words];
+		heavy = new long[2][words];
+	}
+
+	/**
+	 * Places a stone of the given player and value at the specified square,
+	 * replacing whatever was there before.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @param player The index of the player (0 or 1).
+	 * @param value  The value of the stone, 2 for heavy stones.
+	 */
+	public void place(int row, int column, int player, int value) {
+		remove(row, column);
+		int index = row * size + column;
+		stones[player][index >>> 6] |= 1L << index;
+		if (value > 1) {
+			heavy[player][index >>> 6] |= 1L << index;
+		}
+	}
+
+	/**
+	 * Removes any stone at the specified square.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 */
+	public void remove(int row, int column) {
+		int index = row * size + column;
+		long mask = ~(1L << index);
+		for (int player = 0; player < 2; player++) {
+			stones[player][index >>> 6] &= mask;
+			heavy[player][index >>> 6] &= mask;
+		}
+	}
+
+	/**
+	 * Checks if the given player has a stone at the specified square.
+	 *
+	 * @param player The index of the player.
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @return True if the player has a stone there, false otherwise.
+	 */
+	public boolean has(int player, int row, int column) {
+		int index = row * size + column;
+		return (stones[player][index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Retrieves the owner of the stone at the specified square.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @return The index of the player owning the stone, or -1 if the square is empty.
+	 */
+	public int getOwner(int row, int column) {
+		int index = row * size + column;
+		long bit = 1L << index;
+		if ((stones[0][index >>> 6] & bit) != 0)
+			return 0;
+		if ((stones[1][index >>> 6] & bit) != 0)
+			return 1;
+		return -1;
+	}
+
+	/**
+	 * Retrieves the value of the stone at the specified square.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @return 2 for heavy stones, 1 for other stones, 0 if the square is empty.
+	 */
+	public int getValue(int row, int column) {
+		int index = row * size + column;
+		long bit = 1L << index;
+		int word = index >>> 6;
+		if (((stones[0][word] | stones[1][word]) & bit) == 0)
+			return 0;
+		return ((heavy[0][word] | heavy[1][word]) & bit) != 0 ? 2 : 1;
+	}
+
+	/**
+	 * Checks if the specified square has no stone.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @return True if the square is empty, false otherwise.
+	 */
+	public boolean isEmpty(int row, int column) {
+		int index = row * size + column;
+		return ((stones[0][index >>> 6] | stones[1][index >>> 6]) & (1L << index)) == 0;
+	}
+
+	/**
+	 * Counts the stones of a player.
+	 *
+	 * @param player The index of the player.
+	 * @return The number of stones the player has on the board.
+	 */
+	public int count(int player) {
+		int count = 0;
+		for (long word : stones[player]) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Sums the values of the run of stones, of the same player, that goes
+	 * through the specified square along the direction (dr, dc).
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @param dr     The row step of the direction.
+	 * @param dc     The column step of the direction.
+	 * @return The total value of the run, or 0 if the square is empty.
+	 */
+	public int runValue(int row, int column, int dr, int dc) {
+		int player = getOwner(row, column);
+		if (player < 0)
+			return 0;
+		int total = stoneValue(player, row * size + column);
+		int r = row + dr;
+		int c = column + dc;
+		while (inside(r, c) && has(player, r, c)) {
+			total += stoneValue(player, r * size + c);
+			r += dr;
+			c += dc;
+		}
+		r = row - dr;
+		c = column - dc;
+		while (inside(r, c) && has(player, r, c)) {
+			total += stoneValue(player, r * size + c);
+			r -= dr;
+			c -= dc;
+		}
+		return total;
+	}
+
+	/**
+	 * Retrieves the positions of all the stones of a player.
+	 *
+	 * @param player The index of the player.
+	 * @return An ArrayList of int arrays with the (row, column) of every stone.
+	 */
+	public ArrayList<int[]> getPositions(int player) {
+		ArrayList<int[]> positions = new ArrayList<>();
+		long[] bits = stones[player];
+		for (int word = 0; word < bits.length; word++) {
+			long w = bits[word];
+			while (w != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(w);
+				positions.add(new int[] { index / size, index % size });
+				w &= w - 1;
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Retrieves a copy of the occupancy bitset of a player.
+	 *
+	 * @param player The index of the player.
+	 * @return The bitset, one bit per square in row major order.
+	 */
+	public long[] getStones(int player) {
+		return stones[player].clone();
+	}
+
+	/**
+	 * Retrieves a copy of the heavy plane of a player.
+	 *
+	 * @param player The index of the player.
+	 * @return The bitset of the stones with value 2.
+	 */
+	public long[] getHeavy(int player) {
+		return heavy[player].clone();
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	private int stoneValue(int player, int index) {
+		return (heavy[player][index >>> 6] & (1L << index)) != 0 ? 2 : 1;
+	}
+
+	private boolean inside(int r, int c) {
+		return 0 <= r && r < size && 0 <= c && c < size;
+	}
+}
@@ -24,6 +24,12 @@ public class Board  implements Serializable{
 	private Square[][] boardSquares;
 	private Token lastToken;
 	private Game game;
+	private BitBoard bitBoard;
+	private RunTable runs;
+	private long[] keys;
+	private long hash;
+	private Color[] playerColors;
+	private EffectBus effects = new EffectBus();
 
 	/**
 	 * Constructs a Board object with the specified size and percentage of special
@@ -36,6 +42,11 @@ public class Board  implements Serializable{
 	 */
 	public Board(int size) {
 		this.size = size;
+		bitBoard = new BitBoard(size);
+		runs = new RunTable(size);
+		keys = new long[size * size];
+		hash = 0;
+		playerColors = new Color[2];
 		boardSquares = new Square[size][size];
 		boolean[][] visited = new boolean[size][size];
 		for (int i = 0; i < size; i++) {
@@ -118,7 +129,7 @@ public class Board  implements Serializable{
 	/**
 	 * Validates whether the move at the specified row and column results in a
 	 * winning condition. Checks for diagonal, vertical, and horizontal winning
-	 * moves.
+	 * moves by looking up the runs kept by the run table.
 	 *
 	 * @param row    The row coordinate of the last move.
 	 * @param column The column coordinate of the last move.
@@ -127,8 +138,7 @@ public class Board  implements Serializable{
 	public boolean validate(int row, int column) {
 		boolean winner = false;
 		if (verify(row, column)) {
-			winner = diagonalMove(row, column) || diagonalIMove(row, column) || verticalMove(row, column)
-					|| horizontalMove(row, column);
+			winner = runs.isFive(row, column);
 		}
 		return winner;
 	}
@@ -148,149 +158,6 @@ public class Board  implements Serializable{
 		return flag;
 	}
 
-	/**
-	 * Checks for a winning condition along the diagonal line (from top-left to
-	 * bottom-right) originating from the specified row and column.
-	 *
-	 * @param row    The row coordinate of the last move.
-	 * @param column The column coordinate of the last move.
-	 * @return True if a winning condition is met, false otherwise.
-	 */
-	private boolean diagonalMove(int row, int column) {
-		boolean winner = false;
-		Color moveColor = boardSquares[row][column].getTokenColor();
-		if (moveColor != null) {
-			int t = 0;
-			int up = 0;
-			while (verify(row - up - 1, column - up - 1)
-					&& boardSquares[row - up - 1][column - up - 1].getTokenColor() != null
-					&& boardSquares[row - up - 1][column - up - 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row - up - 1][column - up - 1].getTokenValue();
-				up++;
-			}
-			int dw = 0;
-			while (verify(row + dw + 1, column + dw + 1)
-					&& boardSquares[row + dw + 1][column + dw + 1].getTokenColor() != null
-					&& boardSquares[row + dw + 1][column + dw + 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row + dw + 1][column + dw + 1].getTokenValue();
-				dw++;
-			}
-			if (t + boardSquares[row][column].getTokenValue() == 5) {
-				System.out.println("Diagonal at: " + row + " " + column + "..." + up + " " + dw + "... color:"
-						+ boardSquares[row][column].getTokenColor());
-				winner = true;
-			}
-		}
-
-		return winner;
-	}
-
-	/**
-	 * Checks for a winning condition along the diagonal line (from top-right to
-	 * bottom-left) originating from the specified row and column.
-	 *
-	 * @param row    The row coordinate of the last move.
-	 * @param column The column coordinate of the last move.
-	 * @return True if a winning condition is met, false otherwise.
-	 */
-	private boolean diagonalIMove(int row, int column) {
-		boolean winner = false;
-		Color moveColor = boardSquares[row][column].getTokenColor();
-		if (moveColor != null) {
-			int t = 0;
-			int up = 0;
-			while (verify(row - up - 1, column + up + 1)
-					&& boardSquares[row - up - 1][column + up + 1].getTokenColor() != null
-					&& boardSquares[row - up - 1][column + up + 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row - up - 1][column + up + 1].getTokenValue();
-				up++;
-			}
-			int dw = 0;
-			while (verify(row + dw + 1, column - dw - 1)
-					&& boardSquares[row + dw + 1][column - dw - 1].getTokenColor() != null
-					&& boardSquares[row + dw + 1][column - dw - 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row + dw + 1][column - dw - 1].getTokenValue();
-				dw++;
-			}
-			if (t + boardSquares[row][column].getTokenValue() == 5) {
-				System.out.println("Diagonal at: " + row + " " + column + "..." + up + " " + dw + "... color:"
-						+ boardSquares[row][column].getTokenColor());
-				winner = true;
-			}
-		}
-		return winner;
-	}
-
-	/**
-	 * Checks for a winning condition along the horizontal line originating from the
-	 * specified row and column.
-	 *
-	 * @param row    The row coordinate of the last move.
-	 * @param column The column coordinate of the last move.
-	 * @return True if a winning condition is met, false otherwise.
-	 */
-	private boolean horizontalMove(int row, int column) {
-		boolean winner = false;
-		Color moveColor = boardSquares[row][column].getTokenColor();
-		if (moveColor != null) {
-			int t = 0;
-			int lf = 0;
-			while (verify(row, column - lf - 1) && boardSquares[row][column - lf - 1].getTokenColor() != null
-					&& boardSquares[row][column - lf - 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row][column - lf - 1].getTokenValue();
-				lf++;
-			}
-
-			int rg = 0;
-			while (verify(row, column + rg + 1) && boardSquares[row][column + rg + 1].getTokenColor() != null
-					&& boardSquares[row][column + rg + 1].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row][column + rg + 1].getTokenValue();
-				rg++;
-			}
-			if (t + boardSquares[row][column].getTokenValue() == 5) {
-				System.out.println("Horizontal at: " + row + " " + column + "... " + lf + " " + rg + "... color:"
-						+ boardSquares[row][column].getTokenColor());
-				winner = true;
-			}
-		}
-
-		return winner;
-	}
-
-	/**
-	 * Checks for a winning condition along the vertical line originating from the
-	 * specified row and column.
-	 *
-	 * @param row    The row coordinate of the last move.
-	 * @param column The column coordinate of the last move.
-	 * @return True if a winning condition is met, false otherwise.
-	 */
-	private boolean verticalMove(int row, int column) {
-		boolean winner = false;
-		Color moveColor = boardSquares[row][column].getTokenColor();
-		if (moveColor != null) {
-			int up = 0;
-			int t = 0;
-			while (verify(row - up - 1, column) && boardSquares[row - up - 1][column].getTokenColor() != null
-					&& boardSquares[row - up - 1][column].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row - up - 1][column].getTokenValue();
-				up++;
-			}
-			int dw = 0;
-			while (verify(row + dw + 1, column) && boardSquares[row + dw + 1][column].getTokenColor() != null
-					&& boardSquares[row + dw + 1][column].getTokenColor().equals(moveColor)) {
-				t += boardSquares[row + dw + 1][column].getTokenValue();
-				dw++;
-			}
-			if (t + boardSquares[row][column].getTokenValue() == 5) {
-				System.out.println("Vertical at: " + row + " " + column + "... " + up + " " + dw + "... color:"
-						+ boardSquares[row][column].getTokenColor());
-				winner = true;
-			}
-		}
-		return winner;
-	}
-
 	
 	public Square getSquare(int i, int j) {
 		return boardSquares[i][j];
@@ -325,6 +192,15 @@ public class Board  implements Serializable{
 	public int getTurn() {
 		return game.getTurn();
 	}
+
+	/**
+	 * Retrieves the bus where the tokens and squares of this board attach their effects.
+	 *
+	 * @return The effect bus of the board.
+	 */
+	public EffectBus getEffects() {
+		return effects;
+	}
 	
 	
 	public void setGame(Game game) {
@@ -345,25 +221,87 @@ public class Board  implements Serializable{
 	
 	/**
 	 * Retrieves the positions of opponent tokens on the board with the specified opponent color.
-	 * Iterates through the board's squares, identifies those with the opponent's token color,
-	 * and records their positions.
+	 * The positions are read from the bitboard of the player with that color.
 	 *
 	 * @param opponentColor The color of the opponent's tokens to search for.
 	 * @return An ArrayList of int arrays representing the positions (row, column) of opponent tokens.
 	 */
 	public ArrayList<int[]> getOpponentTokenPositions(Color opponentColor) {
-        ArrayList<int[]> opponentTokenPositions = new ArrayList<>();
-
-        for (int row = 0; row < size; row++) {
-            for (int column = 0; column < size; column++) {
-                if (boardSquares[row][column].getTokenColor() != null &&
-                        boardSquares[row][column].getTokenColor().equals(opponentColor)) {
-                    opponentTokenPositions.add(new int[]{row, column});
-                }
-            }
-        }
-
-        return opponentTokenPositions;
-    }
+		int player = getPlayerIndex(opponentColor);
+		return player < 0 ? new ArrayList<>() : bitBoard.getPositions(player);
+	}
+
+	/**
+	 * Updates the packed representation of the board, the runs through the square
+	 * and the position hash after the token of the square at the specified row and
+	 * column has changed.
+	 *
+	 * @param row    The row of the square that changed.
+	 * @param column The column of the square that changed.
+	 * @throws IllegalStateException If the color of the token is not the color of a player.
+	 */
+	public void updateSquare(int row, int column) {
+		Token token = boardSquares[row][column].getToken();
+		int index = row * size + column;
+		hash ^= keys[index];
+		if (token == null) {
+			bitBoard.remove(row, column);
+			keys[index] = 0;
+		} else {
+			int player = getPlayerIndex(token.getColor());
+			if (player < 0)
+				throw new IllegalStateException("The token is not of a player of the board: " + token.getColor());
+			bitBoard.place(row, column, player, token.getValue());
+			keys[index] = Zobrist.key(index, player, Zobrist.kind(token.getClass().getSimpleName()),
+					Zobrist.kind(boardSquares[row][column].getClass().getSimpleName()));
+		}
+		hash ^= keys[index];
+		runs.update(bitBoard, row, column);
+	}
+
+	/**
+	 * Sets the colors of the players, player one gets the index 0 and player two the index 1.
+	 *
+	 * @param colorOne The color of player one.
+	 * @param colorTwo The color of player two.
+	 */
+	public void setPlayerColors(Color colorOne, Color colorTwo) {
+		playerColors[0] = colorOne;
+		playerColors[1] = colorTwo;
+	}
+
+	/**
+	 * Retrieves the index used by the bitboard for the player with the given color.
+	 * The colors are the ones set with setPlayerColors.
+	 *
+	 * @param color The color of the player.
+	 * @return The index of the player (0 or 1), or -1 if no player has that color.
+	 */
+	public int getPlayerIndex(Color color) {
+		for (int i = 0; i < playerColors.length; i++) {
+			if (playerColors[i] != null && playerColors[i].equals(color)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public BitBoard getBitBoard() {
+		return bitBoard;
+	}
+
+	public RunTable getRunTable() {
+		return runs;
+	}
+
+	/**
+	 * Retrieves the Zobrist hash of the current position, built from the player,
+	 * the token type and the square type of every stone on the board.
+	 *
+	 * @return The 64-bit hash of the position.
+	 */
+	public long getHash() {
+		return hash;
+	}
 
 }
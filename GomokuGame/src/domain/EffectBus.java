@@ -0,0 +1,245 @@
+package domain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import domain.Token.PlayToken;
+
+/**
+ * The EffectBus class keeps the effects (PlayToken instances) of the tokens and
+ * squares of one board and makes them act every time something is played on it.
+ * Every board has its own bus, so games do not see the effects of each other.
+ *
+ * Effects act in the order they were attached. Attaching gives a handle that
+ * detaches the effect in constant time; the empty slots left behind are
+ * compacted outside a dispatch, so a dispatch walks a number of slots bounded by
+ * the active effects and not by the history of the game.
+ *
+ * Dispatch never reenters: an event published while effects are acting is queued
+ * and dispatched when the current one ends, to the effects attached by then.
+ * Every event keeps the turn in which it was published, which is the turn the
+ * effects receive.
+ *
+ * Effects that wait some turns (a temporary token, a golden square) leave the
+ * bus and are scheduled for the turn in which they are due, in a timing wheel
+ * indexed by turn. An event only runs the effects due in its turn, before the
+ * attached ones, so the effects that are waiting cost nothing on the other plays.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class EffectBus implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Handle[] handles = new Handle[16];
+	private int count;
+	private int active;
+	// Cola circular con el turno de los eventos pendientes
+	private int[] events = new int[8];
+	private int head;
+	private int pending;
+	private boolean dispatching;
+	// Rueda de turnos: cada compartimento guarda los efectos programados para sus turnos
+	private static final int WHEEL = 8;
+	private PlayToken[][] wheel = new PlayToken[WHEEL][4];
+	private int[][] dueTurns = new int[WHEEL][4];
+	private int[] slotSizes = new int[WHEEL];
+	private PlayToken[] spareEffects = new PlayToken[4];
+	private int[] spareTurns = new int[4];
+	private int scheduled;
+
+	/**
+	 * The attachment of an effect to the bus.
+	 */
+	public static final class Handle implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final EffectBus bus;
+		private final PlayToken effect;
+		private int index;
+
+		private Handle(EffectBus bus, PlayToken effect, int index) {
+			this.bus = bus;
+			this.effect = effect;
+			this.index = index;
+		}
+
+		/**
+		 * Detaches the effect, it does not act again. Detaching it again does nothing.
+		 */
+		public void detach() {
+			bus.detach(this);
+		}
+
+		/**
+		 * Checks if the effect is still attached.
+		 *
+		 * @return True if the effect acts on the next events.
+		 */
+		public boolean isAttached() {
+			return index >= 0;
+		}
+	}
+
+	/**
+	 * Attaches an effect after all the attached ones.
+	 *
+	 * @param effect The effect to attach.
+	 * @return The handle that detaches the effect.
+	 */
+	public Handle attach(PlayToken effect) {
+		if (count == handles.length) {
+			if (!dispatching && active < count / 2)
+				compact();
+			else
+				handles = Arrays.copyOf(handles, handles.length * 2);
+		}
+		Handle handle = new Handle(this, effect, count);
+		handles[count++] = handle;
+		active++;
+		return handle;
+	}
+
+	/**
+	 * Schedules an effect to act once, with the first event published in the given turn.
+	 * Effects scheduled for the same turn act in the order they were scheduled, before
+	 * the attached effects. An effect scheduled while its turn is being dispatched acts
+	 * with the next event of that turn.
+	 *
+	 * @param turn   The turn in which the effect is due.
+	 * @param effect The effect to schedule.
+	 */
+	public void schedule(int turn, PlayToken effect) {
+		int slot = turn & (WHEEL - 1);
+		int size = slotSizes[slot];
+		if (size == wheel[slot].length) {
+			wheel[slot] = Arrays.copyOf(wheel[slot], size * 2);
+			dueTurns[slot] = Arrays.copyOf(dueTurns[slot], size * 2);
+		}
+		wheel[slot][size] = effect;
+		dueTurns[slot][size] = turn;
+		slotSizes[slot] = size + 1;
+		scheduled++;
+	}
+
+	private void detach(Handle handle) {
+		if (handle.index < 0)
+			return;
+		handles[handle.index] = null;
+		handle.index = -1;
+		active--;
+	}
+
+	/**
+	 * Publishes a play: every attached effect acts with the given turn. If effects
+	 * are already acting the event waits until they finish.
+	 *
+	 * @param turn The turn in which the play happened.
+	 * @throws GomokuException If an effect rejects the play; the pending events are discarded.
+	 */
+	public void publish(int turn) throws GomokuException {
+		if (pending == events.length) {
+			int[] grown = new int[events.length * 2];
+			for (int i = 0; i < pending; i++) {
+				grown[i] = events[(head + i) % events.length];
+			}
+			events = grown;
+			head = 0;
+		}
+		events[(head + pending) % events.length] = turn;
+		pending++;
+		if (dispatching)
+			return;
+		dispatching = true;
+		try {
+			while (pending > 0) {
+				int eventTurn = events[head];
+				head = (head + 1) % events.length;
+				pending--;
+				runDue(eventTurn);
+				int end = count;
+				for (int i = 0; i < end; i++) {
+					Handle handle = handles[i];
+					if (handle != null)
+						handle.effect.act(eventTurn);
+				}
+			}
+		} finally {
+			dispatching = false;
+			pending = 0;
+			head = 0;
+			if (count > 2 * active + 16)
+				compact();
+		}
+	}
+
+	/*
+	 * Runs the effects due in the turn. The compartment is emptied first, so the effects
+	 * scheduled meanwhile wait for the next event; the ones of other turns go back to it
+	 * and so do the ones left when an effect throws.
+	 */
+	private void runDue(int turn) throws GomokuException {
+		int slot = turn & (WHEEL - 1);
+		int size = slotSizes[slot];
+		if (size == 0)
+			return;
+		PlayToken[] effects = wheel[slot];
+		int[] turns = dueTurns[slot];
+		wheel[slot] = spareEffects;
+		dueTurns[slot] = spareTurns;
+		slotSizes[slot] = 0;
+		scheduled -= size;
+		int i = 0;
+		try {
+			for (; i < size; i++) {
+				if (turns[i] == turn)
+					effects[i].act(turn);
+				else
+					schedule(turns[i], effects[i]);
+			}
+		} finally {
+			for (int j = i + 1; j < size; j++) {
+				schedule(turns[j], effects[j]);
+			}
+			Arrays.fill(effects, 0, size, null);
+			spareEffects = effects;
+			spareTurns = turns;
+		}
+	}
+
+	/**
+	 * Retrieves the number of attached effects.
+	 *
+	 * @return The number of effects that act on the next event.
+	 */
+	public int getActive() {
+		return active;
+	}
+
+	/**
+	 * Retrieves the number of scheduled effects.
+	 *
+	 * @return The number of effects waiting for their turn.
+	 */
+	public int getScheduled() {
+		return scheduled;
+	}
+
+	// Quita los huecos conservando el orden
+	private void compact() {
+		int k = 0;
+		for (int i = 0; i < count; i++) {
+			Handle handle = handles[i];
+			if (handle != null) {
+				handle.index = k;
+				handles[k++] = handle;
+			}
+		}
+		for (int i = k; i < count; i++) {
+			handles[i] = null;
+		}
+		count = k;
+	}
+}
@@ -33,7 +33,6 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	protected int numTokens;
 	protected  transient Subscription subscription;
 	protected Time time;
-	protected transient Thread t;
 	protected int especialPercentageTokens;
 	protected Player playerOne;
 	protected Player playerTwo;
@@ -114,6 +113,7 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	public void setPlayersInfo(String nameOne, Color color1, String nameTwo, Color color2) {
 		playerOne.setInfo(nameOne, color1);
 		playerTwo.setInfo(nameTwo, color2);
+		board.setPlayerColors(color1, color2);
 	}
 	
 	/**
@@ -169,7 +169,7 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	
 	/**
 	 * Plays a move in the game by placing a token at the specified row and column for the current player.
-	 * The player's turn alternates between Player One and Player Two.
+	 * The player's turn alternates between Player One and Player Two. Once a flag fell no play is allowed.
 	 *
 	 * @param token  The player's token to be placed on the game board.
 	 * @param row    The row where the player wants to place the token.
@@ -178,11 +178,21 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	 */
 	public void play(int row, int column) throws GomokuException {
 
+		if (time != null && time.getFallen() != -1)
+			throw new GomokuException(GomokuException.INVALID_MOVE_TIME_OVER);
 		if (board.verify(row, column)) {
-			if ((turn % 2) == 0) {	
-				playerOne.play(row, column);
-			} else {
-				playerTwo.play(row, column);
+			try {
+				if ((turn % 2) == 0) {	
+					playerOne.play(row, column);
+				} else {
+					playerTwo.play(row, column);
+				}
+				playerOne.moveMade(row, column);
+				playerTwo.moveMade(row, column);
+			} finally {
+				// El reloj cambia de jugador si paso el turno
+				if (time != null)
+					time.turnChanged(turn);
 			}
 		}
 		else {
@@ -335,7 +345,7 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	
 	/**
 	 * Initializes the game by distributing normal and special tokens to players based on the provided percentages.
-	 * Special tokens are distributed randomly among available types.
+	 * Special tokens are distributed randomly among available types. The clock of the player in turn starts.
 	 */
 	protected void start() {
 	    int numSpecials = (numTokens) * especialPercentageTokens / 100;
@@ -368,8 +378,8 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 	    }
 	    playerOne.addToken();
 	    playerTwo.addToken();
-	    t = new Thread(time);
-	    t.start();
+	    if (time != null)
+	        time.start(turn);
 	}
 
 
@@ -505,7 +515,12 @@ public abstract class Game implements Subscriber<Integer>,Serializable{
 
 
 	public void finish() {
-		time.finish();
+		if (time != null)
+			time.finish();
+		if (playerOne != null)
+			playerOne.gameFinished();
+		if (playerTwo != null)
+			playerTwo.gameFinished();
 	}
 
 
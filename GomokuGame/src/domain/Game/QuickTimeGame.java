@@ -42,14 +42,15 @@ public class QuickTimeGame extends Game {
 	}
     
     /**
-     * Processes the next item received during the game. If the item is negative, determines the winner based on the current turn.
+     * Processes the next item received during the game. If the item is negative a flag fell, and the winner
+     * is the player whose flag did not fall, whatever the turn is when the item arrives.
      * 
      * @param item The next item received during the game.
      */
 	@Override
 	public void onNext(Integer item) {
 		if (item < 0) {
-			if (turn % 2 == 0) {
+			if (time.getFallen() == 0) {
 				winner = playerTwo.getName();
 			}
 			else {
@@ -0,0 +1,158 @@
+package domain;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import domain.Game.Game;
+
+/**
+ * The GameLoop class drives the moves of a started Gomoku game. Moves arrive as
+ * events in the inbox of the game: the moves of the human players once they are
+ * played, and the moves the machine players choose. The inbox is drained by a
+ * thread of a pool shared by all the games only while it has events, so a game
+ * that waits for a human player does not hold a thread nor wakes up.
+ *
+ * The events of a game are handled one at a time and in the order they arrived.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+class GameLoop {
+
+	// Hilos compartidos por todos los juegos; los que no se usan terminan solos
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+		Thread thread = new Thread(task, "gomoku-loop");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Gomoku gomoku;
+	private final ConcurrentLinkedQueue<Move> inbox = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private boolean stalled;
+
+	/*
+	 * A move of the inbox. Moves of the human players are already played when they
+	 * arrive, moves of the machine players are played if the turn is still the one
+	 * they were chosen for.
+	 */
+	private static final class Move {
+		private final int row;
+		private final int column;
+		private final int turn;
+		private final boolean played;
+
+		private Move(int row, int column, int turn, boolean played) {
+			this.row = row;
+			this.column = column;
+			this.turn = turn;
+			this.played = played;
+		}
+	}
+
+	/**
+	 * Creates the loop of a game. It does nothing until an event arrives.
+	 *
+	 * @param gomoku The game driven by the loop.
+	 */
+	GameLoop(Gomoku gomoku) {
+		this.gomoku = gomoku;
+	}
+
+	/**
+	 * Submits a move already played by a human player, so the machine player answers it.
+	 *
+	 * @param row    The row of the move.
+	 * @param column The column of the move.
+	 */
+	void played(int row, int column) {
+		submit(new Move(row, column, -1, true));
+	}
+
+	/**
+	 * Wakes the loop so the machine player moves if it is its turn.
+	 */
+	void wake() {
+		submit(new Move(-1, -1, -1, true));
+	}
+
+	private void submit(Move move) {
+		inbox.offer(move);
+		if (scheduled.compareAndSet(false, true))
+			EXECUTOR.execute(this::drain);
+	}
+
+	/*
+	 * Handles the events until the inbox is empty and no machine player has to move.
+	 * The inbox is checked again after leaving it, an event may have arrived meanwhile.
+	 */
+	private void drain() {
+		do {
+			try {
+				Move move;
+				while ((move = inbox.poll()) != null) {
+					if (move.played)
+						stalled = false;
+					else
+						apply(move);
+					if (inbox.isEmpty() && !stalled)
+						choose();
+				}
+			} finally {
+				// Aunque algo falle, el juego debe poder despertar con el siguiente evento
+				scheduled.set(false);
+			}
+		} while (!inbox.isEmpty() && scheduled.compareAndSet(false, true));
+	}
+
+	// Pide la jugada al jugador de maquina del turno, si lo es
+	private void choose() {
+		Game game = gomoku.getGame();
+		int turn;
+		synchronized (game) {
+			if (isOver())
+				return;
+			turn = game.getTurn();
+		}
+		int[] info;
+		try {
+			info = game.play();
+		} catch (RuntimeException e) {
+			// Igual que una jugada que falla: se espera al siguiente evento
+			stalled = true;
+			e.printStackTrace();
+			return;
+		}
+		if (info != null)
+			inbox.offer(new Move(info[0], info[1], turn, false));
+	}
+
+	private void apply(Move move) {
+		Game game = gomoku.getGame();
+		synchronized (game) {
+			if (isOver() || game.getTurn() != move.turn)
+				return;
+			try {
+				game.play(move.row, move.column);
+			} catch (GomokuException | RuntimeException e) {
+				// No se vuelve a intentar hasta el siguiente evento
+				stalled = true;
+				e.printStackTrace();
+				return;
+			}
+		}
+		if (!gomoku.finish && !gomoku.isClosed()) {
+			try {
+				gomoku.submit(gomoku);
+			} catch (IllegalStateException e) {
+				// El juego termino entre la comprobacion y la publicacion
+			}
+		}
+	}
+
+	private boolean isOver() {
+		return gomoku.finish || gomoku.getGame().getWinner() != null;
+	}
+}
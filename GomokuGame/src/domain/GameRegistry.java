@@ -0,0 +1,113 @@
+package domain;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameRegistry class hosts any number of independent Gomoku games in the same
+ * process. Every game is identified by the id given to it when it is created or
+ * registered, and all of its state belongs to its own Gomoku instance, so a server
+ * keeps one registry and many games instead of one process per game.
+ *
+ * The registry can be used from many threads at the same time.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class GameRegistry {
+
+	private final ConcurrentHashMap<Long, Gomoku> games = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong();
+
+	/**
+	 * Creates a new game and registers it.
+	 *
+	 * @param gameType The type of the game, represented as a String.
+	 * @param size     The size of the game, indicating the dimensions.
+	 * @return The new game, whose id is given by getId.
+	 * @throws ClassNotFoundException    If the specified game type class is not found.
+	 * @throws NoSuchMethodException     If a matching constructor is not found in the specified class.
+	 * @throws SecurityException         If a security violation occurs during reflection.
+	 * @throws InstantiationException    If an instance of the class cannot be created (abstract class or interface).
+	 * @throws IllegalAccessException    If the constructor is not accessible due to access modifiers.
+	 * @throws IllegalArgumentException  If the provided arguments are not valid for the constructor.
+	 * @throws InvocationTargetException If an exception occurs while invoking the constructor.
+	 * @throws GomokuException           If the given size is less than 10
+	 */
+	public Gomoku create(String gameType, int size)
+			throws ClassNotFoundException, NoSuchMethodException, SecurityException, InstantiationException,
+			IllegalAccessException, IllegalArgumentException, InvocationTargetException, GomokuException {
+		Gomoku gomoku = new Gomoku(gameType, size);
+		register(gomoku);
+		return gomoku;
+	}
+
+	/**
+	 * Loads a saved game from a file and registers it.
+	 *
+	 * @param fileName The name of the file with the saved game.
+	 * @return The loaded game, or null if it could not be read.
+	 */
+	public Gomoku load(String fileName) {
+		Gomoku gomoku = Gomoku.cargarPartida(fileName);
+		if (gomoku != null)
+			register(gomoku);
+		return gomoku;
+	}
+
+	/**
+	 * Registers a game with a new id.
+	 *
+	 * @param gomoku The game to register.
+	 * @return The id given to the game.
+	 */
+	public long register(Gomoku gomoku) {
+		long id = nextId.incrementAndGet();
+		gomoku.setId(id);
+		games.put(id, gomoku);
+		return id;
+	}
+
+	/**
+	 * Retrieves a game by its id.
+	 *
+	 * @param id The id of the game.
+	 * @return The game, or null if there is no game with that id.
+	 */
+	public Gomoku get(long id) {
+		return games.get(id);
+	}
+
+	/**
+	 * Finishes a game and removes it from the registry.
+	 *
+	 * @param id The id of the game.
+	 * @return The removed game, or null if there was no game with that id.
+	 */
+	public Gomoku remove(long id) {
+		Gomoku gomoku = games.remove(id);
+		if (gomoku != null)
+			gomoku.finish();
+		return gomoku;
+	}
+
+	/**
+	 * Retrieves the ids of the registered games.
+	 *
+	 * @return A view of the ids of the games.
+	 */
+	public Set<Long> getIds() {
+		return games.keySet();
+	}
+
+	/**
+	 * Retrieves the number of registered games.
+	 *
+	 * @return The number of games.
+	 */
+	public int size() {
+		return games.size();
+	}
+}
@@ -21,22 +21,13 @@ import domain.Token.Token;
  * @author Juan Daniel Murcia - Mateo Forero Fuentes
  * @version 2.0
  */
-public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Serializable{
+public class Gomoku extends SubmissionPublisher<Gomoku> implements Serializable{
 
 	private Game game;
-	boolean ok = true;
-	public boolean finish;
+	public volatile boolean finish;
+	private long id;
+	private transient volatile GameLoop loop;
 	
-	private static Gomoku gomokuSingleton = null;
-	
-	/**
-	 * Retrieves the singleton instance of the Gomoku class.
-	 *
-	 * @return The singleton instance of the Gomoku class.
-	 */
-	public static Gomoku getGomoku() {
-		return gomokuSingleton;
-	}
 	/**
 	 * Constructs a Gomoku object based on the specified game type, and size.
 	 *
@@ -60,9 +51,20 @@ public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Ser
 		Constructor<?> constructor = clazz.getConstructor(int.class);
 		Object gameInstance = constructor.newInstance(size);
 		game = (Game) gameInstance;
-		AlertPlay.dettachAll();	
 		finish = false;
-		gomokuSingleton = this;
+	}
+
+	/**
+	 * Retrieves the id of the game in its GameRegistry.
+	 *
+	 * @return The id of the game, 0 if it was never registered.
+	 */
+	public long getId() {
+		return id;
+	}
+
+	void setId(long id) {
+		this.id = id;
 	}
 
 	/**
@@ -115,36 +117,20 @@ public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Ser
 		game.setNumTokens(numTokens);
 		game.setTimeLimit(timeLimit);
 	}
-	@Override
-	public void run(){
-		while (null == game.getWinner()&& !finish) {
-			if(ok) {
-				int[] info = game.play();
-				if (info != null) {
-					try {
-						game.play(info[0], info[1]);
-						ok=true;
-						if(!finish)
-							this.submit(this);
-					} catch (GomokuException e) {
-						e.printStackTrace();
-					}
-				}
-				else {
-					ok = false;
-				}
-			}
-			try {
-				Thread.sleep(10);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
+	/**
+	 * Starts the game loop: from now on the machine players move on their own, and
+	 * every move they make is published to the subscribers. Starting it again does nothing.
+	 */
+	public synchronized void start() {
+		if (loop == null) {
+			loop = new GameLoop(this);
+			loop.wake();
 		}
-		
 	}
-	
+
 	/**
 	 * Plays a move in the Gomoku game by placing a token at the specified row and column.
+	 * If the game loop is started, the move is submitted to it so a machine player answers it.
 	 *
 	 * @param token  The player's token to be placed on the game board.
 	 * @param row    The row where the player wants to place the token.
@@ -152,8 +138,11 @@ public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Ser
 	 * @throws GomokuException 
 	 */
 	public void play(int row, int column) throws GomokuException {
-		game.play(row, column);
-		ok = true;
+		synchronized (game) {
+			game.play(row, column);
+		}
+		if (loop != null)
+			loop.played(row, column);
 	}
 	
 	public void setPlayerToken(String token) {
@@ -256,8 +245,8 @@ public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Ser
 	
 	public void finish() {
 		if(this!=null) {
-			this.close();
 			finish = true;
+			this.close();
 			game.finish();
 		}
 		
@@ -303,8 +292,6 @@ public class Gomoku extends SubmissionPublisher<Gomoku> implements Runnable, Ser
 	    } catch (IOException | ClassNotFoundException e) {
 	        e.printStackTrace();
 	    } 
-	    if(getGomoku()!=partidaCargada)getGomoku().finish();
-	    gomokuSingleton = partidaCargada;
 	    return partidaCargada;
 	}
 	public String getToken(int i, int j) {
@@ -18,6 +18,7 @@ public class GomokuException extends Exception {
 	public static final String INVALID_OVERLAP = "You cant put a overlap token in a overlap token.";
 	public static final String INVALID_MOVE_POSITION = "Invalid move position.";
 	public static final String INVALID_MOVE_NO_TOKENS = "You cant make this move beacose you dont have the token";
+	public static final String INVALID_MOVE_TIME_OVER = "You cant make this move because the time is over";
 	
 	
 	public GomokuException(String message) {
@@ -1,6 +1,6 @@
 package domain.Player;
 
-import java.util.ArrayList;
+import domain.BitBoard;
 
 /**
  * Represents an expert machine player in a Gomoku (Five in a Row) game.
@@ -13,11 +13,11 @@ import java.util.ArrayList;
  */
 public class ExpertMachinePlayer extends MachinePlayer {
 
-	public static int[][] moves = new int[][]{{-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1}};
+	public int size;
 
-	public static int[][] inverseMoves = new int[][] {{1,1},{1,0},{1,-1},{0,1},{0,-1},{-1,1},{-1,0},{-1,-1}};
+	private transient ThreatScorer defense;
 
-	public int size;
+	private transient ThreatScorer attack;
 
 	/**
 
@@ -45,517 +45,75 @@ public class ExpertMachinePlayer extends MachinePlayer {
 
 		}
 
-		return miniMax();
-
-	}
-
-
-	/**
-
-     * Implements the minimax algorithm for move evaluation.
-
-     *
-
-     * @return An array representing the best move based on the minimax algorithm.
-
-     */
-
-	@Override
-
-	public int[] miniMax() {
-
-		this.size = game.getSize();		
-
-		//evaluateMoveAtack();
-
-		int[][] bestMoves1 = evaluateMoveDefensively();
-
-		int[][] bestMoves2 = evaluateMoveAttackly();
-
-		int[][] bestMoves = new int[size][size];
-
-		for (int l = 0; l<size;l++){
-			for (int m= 0; m<size;m++){
-				bestMoves[l][m] = (bestMoves1[l][m] + bestMoves2[l][m])/2;
-			}
-		}
-		
-		int[] bestMove = null;
-
-		int bestEvaluation = Integer.MIN_VALUE;
-
-		for (int l = 0; l < size; l++) {
-
-			for (int m = 0; m < size; m++) {
-
-				int evaluation = bestMoves[l][m];
+		int[] move = forcedMove();
 
-				if(evaluation > bestEvaluation) {
+		if (move == null)
 
-					bestMove = new int[]{l,m};
+			move = solveThreats();
 
-					bestEvaluation = evaluation;
-
-				}
-			}
-
-		}
- 
-		return bestMove;
+		return move != null ? move : miniMax();
 
 	}
 
-	/**
-
-     * Initializes the evaluation of defensive moves by setting up the bestMoves matrix.
-
-     *
-
-     * @param board The game board to be evaluated.
-
-     */
-
-	private int[][] evaluateMoveDefensively() {
-
-		int [][] bestMoves = new int[size][size];
-
-		Node[][] state = new Node[size][size];  
-
-		for (int i = 0; i < size; i++) {
-
-			for (int j = 0; j < size; j++) {
-
-				bestMoves[i][j] = 0;
-
-				int value=0;
-
-				if (game.getTokenColor(i, j) != null) {
-
-					value = game.getTokenValue(i, j);
-
-					if (game.getTokenColor(i, j)==color) value = -value;
-
-				}
-				state[i][j] = new Node(value,i,j);
-			}
-		}
-		return evaluateMovesDefensively(state, bestMoves);
-	}
 
 	/**
 
-     * Evaluates defensive moves on the board and returns the best move based
-
-     * on the minimax algorithm.
-
-     *
-
-     * @param board The game board to be evaluated.
-
-     * @return An array representing the best defensive move.
-
-     */
-
-	private int[][] evaluateMovesDefensively(Node[][] state, int[][] bestMoves) {
-
-		for (int row = 0; row < size; row++) {
-
-			for (int column = 0; column < size; column++) {
-
-				if (state[row][column].getValue()>0 && !state[row][column].isVisited()) {
-
-					for (int i=0;i<8;i++) {
-
-						if(beTheFirst(state, row,column,i)) {
-
-							ArrayList<Node> path = dfs(state, bestMoves, row,column,i,new ArrayList<>());
-
-							for(Node x : path) { x.setLastToken(-1); x.setBlocked(false);}
-
-						}
-
-					}
-
-				}
-
-			}
-
-		}
-
-		return bestMoves;
-		
-	}
-
-	private int[][] evaluateMoveAttackly() {
-
-		int [][] bestMoves = new int[size][size];
-
-		Node[][] state = new Node[size][size];  
-
-		for (int i = 0; i < size; i++) {
-
-			for (int j = 0; j < size; j++) {
-
-				bestMoves[i][j] = 0;
-
-				int value=0;
-
-				if (game.getTokenColor(i, j) != null) {
-
-					value = game.getTokenValue(i, j);
-
-					if (game.getTokenColor(i, j)!=color) value = -value;
-
-				}
-				state[i][j] = new Node(value,i,j);
-			}
-		}
-		return evaluateMovesAttackly(state, bestMoves);
-	}
-
-	private int[][] evaluateMovesAttackly(Node[][] state, int[][] bestMoves) {
-
-		for (int row = 0; row < size; row++) {
-
-			for (int column = 0; column < size; column++) {
-
-				if (state[row][column].getValue()>0 && !state[row][column].isVisited()) {
-
-					for (int i=0;i<8;i++) {
-
-						if(beTheFirst(state, row,column,i)) {
-
-							ArrayList<Node> path = dfs(state, bestMoves, row,column,i,new ArrayList<>());
-
-							for(Node x : path) { x.setLastToken(-1); x.setBlocked(false);}
-
-						}
-
-					}
-
-				}
-
-			}
-
-		}
-		return bestMoves;
-	}
-
-
-	private ArrayList<Node> dfs(Node[][] state, int[][] bestMoves, int i, int j, int direction, ArrayList<Node> path) {
-
-		path.add(state[i][j]);
-
-		if (state[i][j].lastToken()+5 == path.size()) {
-
-		}
-
-		else if (state[i][j].getValue()<0) {
-
-			state[i][j].setBlocked(true);
-
-		}
-
-		else {
-
-			int row = i+moves[direction][0];
-
-			int column = j+moves[direction][1];
-
-			state[i][j].setVisitedDirection(direction);
-
-			if(verify(row,column) && !state[row][column].isVisitedDirection(direction)) {
-
-				if(state[i][j].getValue() > 0) {
-
-					state[row][column].setLastToken(path.size()-1);
-
-				}
-
-				else {
-
-					state[row][column].setLastToken(state[i][j].lastToken());
-
-				}
-
-				path =  dfs(state, bestMoves, row,column,direction,path);
-
-			}
-
-			else if (!verify(row,column))state[i][j].setBlocked(true);
-
-		}
-
-		int rang = Math.max(path.indexOf(state[i][j])-4,0);
+     * Implements the minimax algorithm for move evaluation. Every square is scored
 
-		int limit = Math.min(rang+5, path.size());
+     * for the lines of the opponent and for the lines of the player, and the square
 
-		int index = state[i][j].lastToken();
+     * with the best average of both is played. Both heat maps are kept between turns
 
-		if(index!=-1) {
-
-			int distances = 0;
-
-			int numTokens = 0;
-
-			for(int k = rang; k < limit;k++) {
-
-				int lt = path.get(k).lastToken();
-
-				int i1 = path.get(k).getRow();
-
-				int j1 = path.get(k).getColumn();
-
-				if ((path.get(k).getValue() > 0) && (lt == -1 || !(lt < rang && lt == k-1))) {
-
-					distances += (5-calculateDistance(i,j,i1,j1));
-
-					numTokens += path.get(k).getValue();
-
-				}
-
-			}
-
-			if(state[i][j].getValue() == 0 ) {
-
-				if (numTokens>=3)numTokens++;
-
-				if (path.get(limit-1).isBlocked() || path.get(0).isBlocked())bestMoves[i][j] += Math.sqrt(Math.pow(distances, numTokens));
-
-				else bestMoves[i][j] += Math.pow(distances, numTokens);
-
-			}
-
-		}
-
-		return path;
-
-	}
-
-	public boolean beTheFirst(Node[][] state, int row,int column,int direction) {
-
-		int[] move = inverseMoves[direction];
-
-		boolean flag = true;
-
-		for(int i = 1; i < 5 && flag;i++) {
-
-			int r = row+(move[0]*i);
-
-			int c = column+(move[1]*i);
-
-			if(verify(r,c) && state[r][c].getValue()>0) {
-
-				flag =  false;
-
-			}
-
-			else if(verify(r,c) && state[r][c].getValue()<0) {
-
-				state[row][column].setBlocked(true);
-
-				break;
-
-			}
-
-		}
-
-		return flag;
-
-	}
-
-	/**
-
-	 * Verifies if the specified row and column coordinates are within the valid
-
-	 * bounds of the board.
-
-	 *
-
-	 * @param r The row coordinate.
-
-	 * @param c The column coordinate.
-
-	 * @return True if the coordinates are valid, false otherwise.
-
-	 */
-
-	public boolean verify(int r, int c) {
-
-		boolean flag = false;
-
-		if (0 <= r && r < size && 0 <= c && c < size)
-
-			flag = true;
-
-		return flag;
-
-	}
-
-
-	/**
-
-     * Calculates the distance between two positions on the board.
+     * and only the lines through the squares that changed are scored again.
 
      *
 
-     * @param row1 The row index of the first position.
-
-     * @param col1 The column index of the first position.
-
-     * @param row2 The row index of the second position.
-
-     * @param col2 The column index of the second position.
-
-     * @return The distance between the two positions.
+     * @return An array representing the best move based on the minimax algorithm.
 
      */
 
-	private double calculateDistance(int row1, int col1, int row2, int col2) {
-
-		double dis;
-
-		if (Math.abs(row1 - row2) == 1 && Math.abs(col1 - col2) == 1)
-
-			dis = 1;
-
-		else if (Math.abs(row1 - row2) == 2 && Math.abs(col1 - col2) == 2)
-
-			dis = 2;
-
-		else if (Math.abs(row1 - row2) == 3 && Math.abs(col1 - col2) == 3)
-
-			dis = 3;
-
-		else if (Math.abs(row1 - row2) == 4 && Math.abs(col1 - col2) == 4)
-
-			dis = 4;
-
-		else if (Math.abs(row1 - row2) == 5 && Math.abs(col1 - col2) == 5)
-
-			dis = 5;
-
-		else
-
-			dis = Math.sqrt(Math.pow(row1 - row2, 2) + Math.pow(col1 - col2, 2));
-
-		return dis;
-
-	}
-
-}
- 
- 
-class Node{
-
-	private int value;
-
-	private boolean visited;
-
-	private boolean[] visitedDirections;
-
-	private int lastToken;
-
-	private int row;
-
-	private int column;
-
-	private boolean blocked = false;
-
-	public Node(int value,int row, int column){
-
-		this.value = value;
-
-		this.visited = false;
-
-		this.visitedDirections = new boolean[]{false,false,false,false,false,false,false,false};
-
-		this.lastToken = -1;
-
-		this.row = row;
-
-		this.column = column;
-
-	}
-
-	public boolean isBlocked() {
+	@Override
 
-		return blocked;
+	public int[] miniMax() {
 
-	}
- 
-	public void setBlocked(boolean b) {
+		this.size = game.getSize();
 
-		blocked = b;
+		BitBoard bits = game.getBoard().getBitBoard();
 
-	}
- 
-	public boolean isVisitedDirection(int direction) {
-
-		return visitedDirections[direction];
+		int me = game.getBoard().getPlayerIndex(color);
 
-	}
- 
-	public void setLastToken(int lastToken) {
+		if (defense == null || !defense.fits(size, 1 - me)) {
 
-		this.lastToken = lastToken;
+			defense = new ThreatScorer(size, 1 - me, false);
 
-	}
- 
-	public int getRow() {
+			attack = new ThreatScorer(size, me, false);
 
-		return row;
+		}
 
-	}
- 
-	public int getColumn() {
+		int[] defenseScores = defense.update(bits);
 
-		return column;
+		int[] attackScores = attack.update(bits);
 
-	}
- 
-	public void setVisitedDirection(int direction) {
+		int[] bestMove = null;
 
-		visitedDirections[direction] = true;
+		int bestEvaluation = Integer.MIN_VALUE;
 
-		visited = true;
+		for (int square = 0; square < size * size; square++) {
 
-		for(boolean x:visitedDirections) {
+			int evaluation = (defenseScores[square] + attackScores[square]) / 2;
 
-			if (!x) {
+			if(evaluation > bestEvaluation) {
 
-				visited = false;
+				bestMove = new int[]{square / size, square % size};
 
-				break;
+				bestEvaluation = evaluation;
 
 			}
 
 		}
-
-	}
  
-	public int getValue() {
-
-		return value;
-
-	}
- 
-	public int lastToken() {
-
-		return lastToken;
-
-	}
- 
-	public boolean isVisited() {
-
-		return visited;
+		return bestMove;
 
 	}
- 
-	public void setValue(int value) {
 
-		this.value = value;
-
-	}
- 
-}
\ No newline at end of file
+}
@@ -1,5 +1,8 @@
 package domain.Player;
 
+import domain.Board;
+import domain.Time;
+
 /*
  * The MachinePlayer class represents an abstract machine player in the Gomoku game.
  * It extends the Player class and provides a framework for AI-based player implementations.
@@ -16,6 +19,13 @@ public abstract class MachinePlayer extends Player {
      */
     protected int timeRetard = 0;
 
+    // Tiempo del solver de amenazas para los jugadores sin tiempo por jugada
+    private static final int THREAT_TIME = 1000;
+    private static final int THREAT_MARGIN = 100;
+    private static final int THREAT_MOVES = 20;
+    // Parte del tiempo de la jugada que usa el solver antes de la busqueda
+    private static final int THREAT_SHARE = 4;
+
     /**
      * Abstract method representing the main play strategy for the machine player.
      * Subclasses must implement this method to define how the machine player makes a move in the game.
@@ -31,4 +41,76 @@ public abstract class MachinePlayer extends Player {
      * @return An array of integers representing the coordinates (row, column) of the best move calculated by the mini-max algorithm.
      */
     public abstract int[] miniMax();
+
+    /**
+     * Calculates the time, in milliseconds, that the search can use for this move.
+     * In games with a time limit it is a share of the remaining time of the player
+     * minus the safety margin; otherwise it is the configured move time.
+     *
+     * @param moveTime     The time per move in games without time limit.
+     * @param safetyMargin The time kept in reserve in games with time limit.
+     * @param movesToGo    The number of moves the remaining time is shared among.
+     * @return The time budget of the move in milliseconds.
+     */
+    protected long getMoveBudget(int moveTime, int safetyMargin, int movesToGo) {
+        Time time = game.getTime();
+        int remaining = time == null ? -1 : time.getRemainingMili(game.getTurn());
+        if (remaining < 0)
+            return moveTime;
+        return Math.max(Math.min(remaining / movesToGo, remaining - safetyMargin), 0);
+    }
+
+    /**
+     * Looks for a forced move with the run table of the board: a square where the player completes
+     * five, or else a square where the opponent would complete five and must be blocked.
+     *
+     * @return An array of integers representing the coordinates (row, column) of the move, or null if the move is not forced.
+     */
+    protected int[] forcedMove() {
+        Board board = game.getBoard();
+        int player = board.getPlayerIndex(color);
+        int[] move = fiveSquare(board, player);
+        return move != null ? move : fiveSquare(board, 1 - player);
+    }
+
+    /**
+     * Runs the threat space solver before a search without time limit. The solver gets the
+     * default time budget, bounded by the remaining time of the player in games with time limit.
+     *
+     * @return An array of integers representing the coordinates (row, column) of the move, or null if nothing was proven.
+     */
+    protected int[] solveThreats() {
+        return solve(System.nanoTime() + getMoveBudget(THREAT_TIME, THREAT_MARGIN, THREAT_MOVES) * 1_000_000L);
+    }
+
+    /**
+     * Runs the threat space solver before a search with a deadline. The solver only uses a
+     * share of the time left until the deadline of the move, the search keeps the rest.
+     *
+     * @param deadline The value of System.nanoTime() when the move must be decided.
+     * @return An array of integers representing the coordinates (row, column) of the move, or null if nothing was proven.
+     */
+    protected int[] solveThreats(long deadline) {
+        long now = System.nanoTime();
+        return solve(now + Math.max(deadline - now, 0) / THREAT_SHARE);
+    }
+
+    /*
+     * Returns a move only when the solver proves a forced win of the player, or a move that
+     * stops a forced win of the opponent. The solver gives up, proving nothing, at the deadline.
+     */
+    private int[] solve(long deadline) {
+        ThreatSolver solver = new ThreatSolver(game.getBoard().getBitBoard(), game.getBoard().getPlayerIndex(color));
+        return solver.solve(deadline);
+    }
+
+    /*
+     * Finds the first empty square where a stone of the player joins runs worth exactly 5.
+     * The run table keeps those squares up to date as the board changes.
+     */
+    private int[] fiveSquare(Board board, int player) {
+        int square = board.getRunTable().getFiveSquare(player);
+        int size = board.getBitBoard().getSize();
+        return square < 0 ? null : new int[] { square / size, square % size };
+    }
 }
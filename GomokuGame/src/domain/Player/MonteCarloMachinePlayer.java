@@ -0,0 +1,555 @@
+package domain.Player;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import domain.BitBoard;
+
+/**
+ * The MonteCarloMachinePlayer class chooses its moves with Monte Carlo tree
+ * search (UCT). Every iteration walks down the tree choosing the child with the
+ * best upper confidence bound, expands the leaf, finishes the game with a quick
+ * simulated playout and credits the result to every node of the path. When the
+ * time budget of the move runs out, the most visited move of the root is played.
+ *
+ * The tree is shared by all the search threads (tree parallel search). A thread
+ * counts its visit in every node on the way down, before it knows the result, so
+ * the path looks like a loss to the other threads until the result arrives
+ * (virtual loss) and they spread over different branches.
+ *
+ * Playouts run on a padded board of the worker, with the list of empty squares
+ * near the stones kept up to date as moves are played, so they do not allocate.
+ * They are guided by the only patterns that force a move: a player completes
+ * five when it can, blocks a five of its opponent when it must, and otherwise
+ * plays a random square near the stones. A five is a line of stones whose
+ * values add up to exactly 5.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class MonteCarloMachinePlayer extends MachinePlayer {
+
+	private static int moveTime = 1000;
+	private static int safetyMargin = 100;
+	private static int movesToGo = 20;
+	private static int threads = Runtime.getRuntime().availableProcessors();
+	private static double exploration = 0.7;
+	private static int maxNodes = 1 << 20;
+
+	private static final int PAD = 2;
+	private static final int EMPTY = -1;
+	private static final int BORDER = -2;
+	private static final int WIN = 2;
+	private static final int DRAW = 1;
+
+	private int size;
+	private int width;
+	private int[] directions;
+	private int[] neighbours;
+	private int me;
+	private long deadline;
+	private volatile boolean stop;
+	private AtomicInteger nodeCount = new AtomicInteger();
+	private long playouts;
+	private transient TreeNode root;
+	// Posicion de la raiz que cada trabajador copia antes de cada iteracion
+	private int[] rootOwner;
+	private int[] rootValue;
+	private int[] rootCandidates;
+	private int[] rootPosition;
+	private int rootCount;
+	private int[][] rootFives;
+
+	@Override
+	public int[] play() {
+		try {
+			Thread.sleep(timeRetard);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		long startTime = System.nanoTime();
+		long moveDeadline = startTime + getMoveBudget(moveTime, safetyMargin, movesToGo) * 1_000_000L;
+		int[] move = forcedMove();
+		if (move == null)
+			move = solveThreats(moveDeadline);
+		return move != null ? move : search(startTime, moveDeadline);
+	}
+
+	/**
+	 * Searches the best move with Monte Carlo tree search until the time budget of
+	 * the move runs out. Despite its name, inherited from MachinePlayer, it does
+	 * not run minimax.
+	 *
+	 * @return An array with the row and column of the most visited move.
+	 */
+	@Override
+	public int[] miniMax() {
+		long startTime = System.nanoTime();
+		return search(startTime, startTime + getMoveBudget(moveTime, safetyMargin, movesToGo) * 1_000_000L);
+	}
+
+	// Busca la jugada hasta moveDeadline, el plazo de toda la jugada
+	private int[] search(long startTime, long moveDeadline) {
+		BitBoard bits = game.getBoard().getBitBoard();
+		me = game.getBoard().getPlayerIndex(color);
+		int[] previous = rootOwner;
+		setRoot(bits);
+		if (rootCount == 0)
+			return firstEmpty(bits);
+		deadline = moveDeadline;
+		stop = false;
+		root = reusedRoot(previous);
+		if (root == null) {
+			root = new TreeNode(-1, 1 - me);
+			nodeCount.set(1);
+		} else {
+			nodeCount.set(count(root));
+		}
+
+		Worker[] workers = new Worker[threads];
+		Thread[] helpers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(startTime + i);
+		}
+		for (int i = 1; i < threads; i++) {
+			helpers[i] = new Thread(workers[i]);
+			helpers[i].start();
+		}
+		workers[0].run();
+		stop = true;
+		playouts = workers[0].playouts;
+		for (int i = 1; i < threads; i++) {
+			try {
+				helpers[i].join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			playouts += workers[i].playouts;
+		}
+		TreeNode best = null;
+		if (root.children != null) {
+			for (TreeNode child : root.children) {
+				if (best == null || child.visits > best.visits)
+					best = child;
+			}
+		}
+		// Sin hijos en la raiz se juega el primer candidato
+		int move = best == null ? rootCandidates[0] : best.move;
+		return new int[] { move / width - PAD, move % width - PAD };
+	}
+
+	/**
+	 * Sets the time used per move in games without time limit.
+	 *
+	 * @param mili The time per move in milliseconds.
+	 */
+	public static void setMoveTime(int mili) {
+		moveTime = mili;
+	}
+
+	/**
+	 * Sets the time kept in reserve in games with time limit.
+	 *
+	 * @param mili The safety margin in milliseconds.
+	 */
+	public static void setSafetyMargin(int mili) {
+		safetyMargin = mili;
+	}
+
+	/**
+	 * Sets the number of threads that share the tree.
+	 *
+	 * @param number The number of search threads.
+	 */
+	public static void setThreads(int number) {
+		threads = Math.max(number, 1);
+	}
+
+	/**
+	 * Sets the exploration constant of the upper confidence bound.
+	 *
+	 * @param constant The weight of the exploration term.
+	 */
+	public static void setExploration(double constant) {
+		exploration = constant;
+	}
+
+	/**
+	 * Sets the number of tree nodes after which the leaves are no longer expanded.
+	 *
+	 * @param nodes The maximum number of nodes of the tree.
+	 */
+	public static void setMaxNodes(int nodes) {
+		maxNodes = nodes;
+	}
+
+	/**
+	 * Retrieves the number of playouts of the last search, over all its threads.
+	 *
+	 * @return The number of playouts.
+	 */
+	public long getPlayouts() {
+		return playouts;
+	}
+
+	/**
+	 * Copies the board to the padded root arrays, with the empty squares near the
+	 * stones and the squares where each player completes five.
+	 */
+	private void setRoot(BitBoard bits) {
+		size = bits.getSize();
+		width = size + 2 * PAD;
+		directions = new int[] { 1, width, width + 1, width - 1 };
+		neighbours = new int[24];
+		int k = 0;
+		for (int dr = -2; dr <= 2; dr++) {
+			for (int dc = -2; dc <= 2; dc++) {
+				if (dr != 0 || dc != 0)
+					neighbours[k++] = dr * width + dc;
+			}
+		}
+		rootOwner = new int[width * width];
+		rootValue = new int[width * width];
+		rootCandidates = new int[width * width];
+		rootPosition = new int[width * width];
+		rootCount = 0;
+		for (int i = 0; i < rootOwner.length; i++) {
+			rootOwner[i] = BORDER;
+			rootPosition[i] = -1;
+		}
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int square = (row + PAD) * width + column + PAD;
+				rootOwner[square] = bits.getOwner(row, column);
+				rootValue[square] = bits.getValue(row, column);
+			}
+		}
+		for (int square = 0; square < rootOwner.length; square++) {
+			if (rootOwner[square] != EMPTY)
+				continue;
+			for (int offset : neighbours) {
+				int other = square + offset;
+				if (other >= 0 && other < rootOwner.length && rootOwner[other] >= 0) {
+					rootPosition[square] = rootCount;
+					rootCandidates[rootCount++] = square;
+					break;
+				}
+			}
+		}
+		rootFives = new int[2][9];
+		for (int player = 0; player < 2; player++) {
+			for (int i = 0; i < rootCount && rootFives[player][8] < 8; i++) {
+				if (isFive(rootOwner, rootValue, player, rootCandidates[i]))
+					rootFives[player][rootFives[player][8]++] = rootCandidates[i];
+			}
+		}
+	}
+
+	/*
+	 * Finds in the tree of the previous search the node reached by the move of the
+	 * player and the reply of the opponent played since then, or null if the board
+	 * changed in any other way.
+	 */
+	private TreeNode reusedRoot(int[] previous) {
+		if (root == null || previous == null || previous.length != rootOwner.length)
+			return null;
+		int own = -1;
+		int reply = -1;
+		for (int square = 0; square < rootOwner.length; square++) {
+			if (previous[square] == rootOwner[square])
+				continue;
+			if (previous[square] == EMPTY && rootOwner[square] == me && own == -1)
+				own = square;
+			else if (previous[square] == EMPTY && rootOwner[square] == 1 - me && reply == -1)
+				reply = square;
+			else
+				return null;
+		}
+		if (own == -1 || reply == -1)
+			return null;
+		TreeNode node = child(child(root, own), reply);
+		return node != null && node.children != null ? node : null;
+	}
+
+	private static TreeNode child(TreeNode node, int move) {
+		if (node == null || node.children == null)
+			return null;
+		for (TreeNode child : node.children) {
+			if (child.move == move)
+				return child;
+		}
+		return null;
+	}
+
+	// Numero de nodos del subarbol
+	private static int count(TreeNode node) {
+		int total = 1;
+		if (node.children != null) {
+			for (TreeNode child : node.children) {
+				total += count(child);
+			}
+		}
+		return total;
+	}
+
+	// El centro si esta libre, si no la primera casilla vacia
+	private int[] firstEmpty(BitBoard bits) {
+		if (bits.isEmpty(size / 2, size / 2))
+			return new int[] { size / 2, size / 2 };
+		for (int square = 0; square < size * size; square++) {
+			if (bits.isEmpty(square / size, square % size))
+				return new int[] { square / size, square % size };
+		}
+		return null;
+	}
+
+	// Poner una ficha normal de player en la casilla vacia square hace una linea de valor exactamente 5
+	private boolean isFive(int[] owner, int[] value, int player, int square) {
+		for (int d : directions) {
+			int total = 1;
+			for (int s = square + d; owner[s] == player; s += d)
+				total += value[s];
+			for (int s = square - d; owner[s] == player; s -= d)
+				total += value[s];
+			if (total == 5)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A node of the search tree. wins counts half points from the point of view of
+	 * the player that made the move of the node: 2 for a win and 1 for a draw.
+	 */
+	private static final class TreeNode {
+		private static final AtomicIntegerFieldUpdater<TreeNode> VISITS = AtomicIntegerFieldUpdater
+				.newUpdater(TreeNode.class, "visits");
+		private static final AtomicIntegerFieldUpdater<TreeNode> WINS = AtomicIntegerFieldUpdater
+				.newUpdater(TreeNode.class, "wins");
+		private final int move;
+		private final int mover;
+		private volatile int visits;
+		private volatile int wins;
+		private volatile TreeNode[] children;
+
+		TreeNode(int move, int mover) {
+			this.move = move;
+			this.mover = mover;
+		}
+	}
+
+	/**
+	 * A search thread with its own board, path and random generator.
+	 */
+	private class Worker implements Runnable {
+		private int[] owner;
+		private int[] value;
+		private int[] candidates;
+		private int[] position;
+		private int count;
+		// Casillas donde cada jugador completa cinco; la ultima entrada es la cantidad
+		private int[][] fives;
+		private TreeNode[] path;
+		private SplittableRandom random;
+		private long playouts;
+
+		Worker(long seed) {
+			owner = new int[rootOwner.length];
+			value = new int[rootOwner.length];
+			candidates = new int[rootOwner.length];
+			position = new int[rootOwner.length];
+			fives = new int[2][9];
+			path = new TreeNode[size * size + 1];
+			random = new SplittableRandom(seed);
+		}
+
+		@Override
+		public void run() {
+			// Al menos una iteracion, que expande la raiz aunque el plazo ya haya pasado
+			do {
+				iterate();
+				playouts++;
+			} while (!stop && System.nanoTime() < deadline);
+		}
+
+		/**
+		 * Runs one iteration: selection, expansion, playout and backpropagation.
+		 */
+		private void iterate() {
+			reset();
+			TreeNode node = root;
+			int side = me;
+			int depth = 0;
+			int winner = -1;
+			boolean finished = false;
+			TreeNode.VISITS.incrementAndGet(node);
+			path[depth++] = node;
+			while (!finished) {
+				if (node.children == null) {
+					if (node != root && node.visits <= 1 || nodeCount.get() >= maxNodes)
+						break;
+					expand(node, side);
+				}
+				node = select(node);
+				TreeNode.VISITS.incrementAndGet(node);
+				path[depth++] = node;
+				if (play(node.move, side)) {
+					winner = side;
+					finished = true;
+				} else if (count == 0) {
+					finished = true;
+				}
+				side = 1 - side;
+			}
+			if (!finished)
+				winner = playout(side);
+			for (int i = 0; i < depth; i++) {
+				TreeNode visited = path[i];
+				TreeNode.WINS.addAndGet(visited, winner == -1 ? DRAW : winner == visited.mover ? WIN : 0);
+			}
+		}
+
+		/**
+		 * Creates the children of a leaf: the square that completes five, or the
+		 * square that blocks the opponent's five, or every empty square near the stones.
+		 */
+		private void expand(TreeNode node, int side) {
+			synchronized (node) {
+				if (node.children != null)
+					return;
+				int win = validFive(side);
+				int block = win >= 0 ? -1 : validFive(1 - side);
+				TreeNode[] children;
+				if (win >= 0 || block >= 0) {
+					children = new TreeNode[] { new TreeNode(win >= 0 ? win : block, side) };
+				} else {
+					children = new TreeNode[count];
+					for (int i = 0; i < count; i++) {
+						children[i] = new TreeNode(candidates[i], side);
+					}
+				}
+				nodeCount.addAndGet(children.length);
+				node.children = children;
+			}
+		}
+
+		/**
+		 * Chooses the child with the best upper confidence bound, an unvisited child first.
+		 */
+		private TreeNode select(TreeNode node) {
+			TreeNode[] children = node.children;
+			double logParent = Math.log(Math.max(node.visits, 1));
+			TreeNode best = children[0];
+			double bestValue = -1;
+			for (TreeNode child : children) {
+				int visits = child.visits;
+				if (visits == 0)
+					return child;
+				double value = child.wins / (2.0 * visits) + exploration * Math.sqrt(logParent / visits);
+				if (value > bestValue) {
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Finishes the game from the current board.
+		 *
+		 * @return The index of the winner, or -1 for a draw.
+		 */
+		private int playout(int side) {
+			while (count > 0) {
+				if (validFive(side) >= 0)
+					return side;
+				int square = validFive(1 - side);
+				if (square < 0)
+					square = candidates[random.nextInt(count)];
+				if (play(square, side))
+					return side;
+				side = 1 - side;
+			}
+			return -1;
+		}
+
+		/**
+		 * Plays a normal stone, updates the squares near the stones and the squares
+		 * where the player completes five.
+		 *
+		 * @return True if the move makes five.
+		 */
+		private boolean play(int square, int side) {
+			owner[square] = side;
+			value[square] = 1;
+			int last = candidates[--count];
+			candidates[position[square]] = last;
+			position[last] = position[square];
+			position[square] = -1;
+			for (int offset : neighbours) {
+				int other = square + offset;
+				if (owner[other] == EMPTY && position[other] < 0) {
+					position[other] = count;
+					candidates[count++] = other;
+				}
+			}
+			boolean five = false;
+			int found = 0;
+			for (int i = 0; i < fives[side][8]; i++) {
+				if (owner[fives[side][i]] == EMPTY)
+					fives[side][found++] = fives[side][i];
+			}
+			for (int d : directions) {
+				int total = 1;
+				int first = square + d;
+				while (owner[first] == side) {
+					total += value[first];
+					first += d;
+				}
+				int second = square - d;
+				while (owner[second] == side) {
+					total += value[second];
+					second -= d;
+				}
+				five |= total == 5;
+				found = addFive(side, first, found);
+				found = addFive(side, second, found);
+			}
+			fives[side][8] = found;
+			return five;
+		}
+
+		// Guarda square si player completa cinco alli y hay espacio en la lista
+		private int addFive(int player, int square, int found) {
+			if (found == 8 || owner[square] != EMPTY || !isFive(owner, value, player, square))
+				return found;
+			for (int i = 0; i < found; i++) {
+				if (fives[player][i] == square)
+					return found;
+			}
+			fives[player][found] = square;
+			return found + 1;
+		}
+
+		// Una casilla guardada donde player todavia completa cinco, o -1
+		private int validFive(int player) {
+			for (int i = 0; i < fives[player][8]; i++) {
+				int square = fives[player][i];
+				if (owner[square] == EMPTY && isFive(owner, value, player, square))
+					return square;
+			}
+			return -1;
+		}
+
+		private void reset() {
+			System.arraycopy(rootOwner, 0, owner, 0, owner.length);
+			System.arraycopy(rootValue, 0, value, 0, value.length);
+			System.arraycopy(rootCandidates, 0, candidates, 0, candidates.length);
+			System.arraycopy(rootPosition, 0, position, 0, position.length);
+			count = rootCount;
+			System.arraycopy(rootFives[0], 0, fives[0], 0, 9);
+			System.arraycopy(rootFives[1], 0, fives[1], 0, 9);
+		}
+	}
+}
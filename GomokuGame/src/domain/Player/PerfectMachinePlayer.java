@@ -1,14 +1,28 @@
 package domain.Player;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+
+import domain.BitBoard;
+import domain.RunTable;
+import domain.Zobrist;
 
 
 public class PerfectMachinePlayer extends MachinePlayer {
 
-	private static int depth = 5;
+	private static int maxDepth = 20;
 	private static int childs = 8;
+	private static int tableBits = 20;
+	private static int moveTime = 1000;
+	private static int safetyMargin = 100;
+	private static int movesToGo = 20;
+	private static int threads = 1;
+	private static int aspiration = 100;
+	private static boolean pondering = false;
+	private static final long PONDER_LIMIT = 60_000_000_000L;
+	private static final int INFINITY = Integer.MAX_VALUE;
+	private static final int WIN = 1000000;
+	private static final int MAX_PLY = 1000;
 	private static ArrayList<String> patterns = new ArrayList<>();
 	private static ArrayList<Integer> results = new ArrayList<>();
 	static {
@@ -37,21 +51,26 @@ public class PerfectMachinePlayer extends MachinePlayer {
 		patterns.add("-1111-1");results.add(-10);
 		patterns.add("-11111-1");results.add(-15);
 	}
-	// 0: -1, -1 = arriba izquierda
-	// 1: -1, 0 = arriba
-	// 2: -1, 1 = arriba derecha
-	// 3: 0, -1 = izquierda
-	// 4: 0, 1 = derecha
-	// 5: 1, -1 = abajo izquierda
-	// 6: 1, 0 = abajo
-	// 7: 1, 1 = abajo derecha
-	public static int[][] moves = new int[][] { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 },
-			{ 1, 0 }, { 1, 1 } };
-
-	public static int[][] inverseMoves = new int[][] { { 1, 1 }, { 1, 0 }, { 1, -1 }, { 0, 1 }, { 0, -1 }, { -1, 1 },
-			{ -1, 0 }, { -1, -1 } };
-
+	// Tabla de patrones compilada: scores[bloqueos][offsets[largo] + codigo en base 3]
+	static final int WINDOW = 7;
+	private static int[] offsets = new int[WINDOW + 2];
+	private static int[][] scores;
+	static {
+		compilePatterns();
+	}
 	public int size;
+	private transient TranspositionTable table;
+	private volatile long deadline;
+	private volatile boolean stop;
+	private int[][] principalVariation = new int[0][];
+	private transient Searcher[] searchers;
+	private transient int[][] rootState;
+	private transient Thread ponderThread;
+	private transient Searcher ponderSearcher;
+	private transient int[][] ponderState;
+	private int[] ponderMove;
+	private volatile boolean ponderHit;
+	private volatile boolean finished;
 
 	@Override
 	public int[] play() {
@@ -60,497 +79,1194 @@ public class PerfectMachinePlayer extends MachinePlayer {
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
-		return miniMax();
+		long startTime = System.nanoTime();
+		long moveDeadline = startTime + getMoveBudget(moveTime, safetyMargin, movesToGo) * 1_000_000L;
+		int[] move = forcedMove();
+		if (move == null)
+			move = solveThreats(moveDeadline);
+		if (move == null)
+			return search(startTime, moveDeadline);
+		stopPondering();
+		principalVariation = new int[][] { move };
+		return move;
 	}
 
+	/**
+	 * With pondering enabled, starts searching the predicted reply in the background
+	 * after a move of the player, and checks the prediction when the opponent moves.
+	 * A move different from the predicted one, or a board different from the pondered
+	 * one (a special square or token changed it), stops the background search; the
+	 * transposition table it filled is still reused by the next search.
+	 *
+	 * @param row    The row of the move.
+	 * @param column The column of the move.
+	 */
+	@Override
+	public void moveMade(int row, int column) {
+		if (!pondering)
+			return;
+		int me = game.getBoard().getPlayerIndex(color);
+		if (game.getBoard().getBitBoard().getOwner(row, column) == me) {
+			stopPondering();
+			startPondering(me);
+		} else if (ponderThread != null) {
+			if (ponderMove[0] == row && ponderMove[1] == column && game.getWinner() == null && isPondered())
+				ponderHit = true;
+			else
+				stopPondering();
+		}
+	}
+
+	/*
+	 * Searches in a background thread the position after the reply that the principal
+	 * variation predicts, as if it were already the turn of the player.
+	 */
+	private synchronized void startPondering(int me) {
+		if (finished || game.getWinner() != null || principalVariation.length < 2)
+			return;
+		int[] reply = principalVariation[1];
+		int[][] state = makeActualState();
+		if (state[reply[0]][reply[1]] != 0)
+			return;
+		state[reply[0]][reply[1]] = -1;
+		if (table == null)
+			table = new TranspositionTable(tableBits);
+		table.newSearch();
+		deadline = System.nanoTime() + PONDER_LIMIT;
+		stop = false;
+		ponderMove = reply;
+		ponderState = state;
+		ponderHit = false;
+		ponderSearcher = new Searcher(new TState(state, me), 0);
+		ponderThread = new Thread(ponderSearcher, "gomoku-ponder");
+		ponderThread.setDaemon(true);
+		ponderThread.start();
+	}
+
+	/**
+	 * Stops the background search when the game finishes or is dropped.
+	 */
+	@Override
+	public void gameFinished() {
+		finished = true;
+		stopPondering();
+	}
+
+	/*
+	 * Stops the background search, if any, and waits for it.
+	 */
+	private synchronized void stopPondering() {
+		if (ponderThread == null)
+			return;
+		stop = true;
+		joinPondering();
+	}
+
+	private synchronized void joinPondering() {
+		if (ponderThread == null)
+			return;
+		try {
+			ponderThread.join();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		ponderThread = null;
+		ponderState = null;
+		ponderHit = false;
+	}
+
+	// El tablero real es el que se penso: la respuesta predicha y nada mas cambio
+	private boolean isPondered() {
+		return ponderState != null && Arrays.deepEquals(makeActualState(), ponderState);
+	}
+
+	/**
+	 * Searches the best move with iterative deepening. Every iteration goes one ply
+	 * deeper, reusing the transposition table of the previous ones to order the
+	 * moves, until the time budget for this move runs out or the maximum depth is
+	 * reached. Every iteration is a principal variation search started with an
+	 * aspiration window around the score of the previous one. The move of the
+	 * last completed iteration is played.
+	 *
+	 * With more than one thread the search runs in Lazy SMP mode: helper threads
+	 * search the same position on their own boards, sharing the transposition
+	 * table, while the main searcher decides the move. With one thread only the
+	 * main searcher runs, exactly as the single threaded search.
+	 *
+	 * @return An array with the row and column of the best move found.
+	 */
 	@Override
 	public int[] miniMax() {
 		long startTime = System.nanoTime();
+		return search(startTime, startTime + getMoveBudget(moveTime, safetyMargin, movesToGo) * 1_000_000L);
+	}
 
+	// Busca la jugada hasta moveDeadline, el plazo de toda la jugada
+	private int[] search(long startTime, long moveDeadline) {
+		if (ponderThread != null && ponderHit && isPondered()) {
+			// La prediccion acerto: la busqueda de fondo sigue con el tiempo de esta jugada
+			deadline = moveDeadline;
+			Searcher searcher = ponderSearcher;
+			joinPondering();
+			if (searcher.bestMove != null) {
+				principalVariation = searcher.variation;
+				searchers = threads == 1 ? new Searcher[] { searcher } : null;
+				rootState = makeActualState();
+				return searcher.bestMove;
+			}
+		}
+		stopPondering();
 		int[][] state = makeActualState();
-		TState actualState = new TState(state, new int[] { -1, -1 });
-
-		int[] bestMove = maxValue(actualState, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
-		int[] move = new int[] { bestMove[1], bestMove[2] };
+		int me = game.getBoard().getPlayerIndex(color);
+		if (table == null)
+			table = new TranspositionTable(tableBits);
+		table.newSearch();
+		deadline = moveDeadline;
+		stop = false;
+
+		prepareSearchers(state, me);
+		Thread[] helpers = new Thread[threads];
+		for (int i = 1; i < threads; i++) {
+			helpers[i] = new Thread(searchers[i]);
+			helpers[i].start();
+		}
+		searchers[0].run();
+		stop = true;
+		long nodes = searchers[0].nodes;
+		for (int i = 1; i < threads; i++) {
+			try {
+				helpers[i].join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			nodes += searchers[i].nodes;
+		}
+		int[] move = searchers[0].bestMove;
+		principalVariation = searchers[0].variation;
 
 		long endTime = System.nanoTime();
 
 		long executionTime = (endTime - startTime) / 1_000_000;
 
-		System.out.println("Tiempo de ejecucion de miniMax: " + executionTime + " ms");
+		System.out.println("Tiempo de ejecucion de miniMax: " + executionTime + " ms, profundidad: "
+				+ searchers[0].reached + ", nodos: " + nodes);
 
 		return move;
 	}
 
-	private int[][] makeActualState() {
-		this.size = game.getSize();
-		int[][] actualState = new int[size][size];
+	/*
+	 * Keeps the searchers of the previous move when the board only changed by a stone
+	 * of each player, advancing them by those two moves; otherwise creates them again.
+	 */
+	private void prepareSearchers(int[][] state, int me) {
+		int[] played = playedSince(state);
+		if (played == null || searchers == null || searchers.length != threads
+				|| searchers[0].killers.length != maxDepth + 1) {
+			searchers = new Searcher[threads];
+			for (int i = 0; i < threads; i++) {
+				searchers[i] = new Searcher(new TState(state, me), i);
+			}
+		} else {
+			for (Searcher searcher : searchers) {
+				searcher.advance(played[0], played[1]);
+			}
+		}
+		rootState = state;
+	}
+
+	/*
+	 * Finds the move of the player and the reply of the opponent that lead from the root
+	 * of the previous search to the given position, or null if it is not reached that way.
+	 */
+	private int[] playedSince(int[][] state) {
+		if (rootState == null || rootState.length != state.length)
+			return null;
+		int own = -1;
+		int reply = -1;
 		for (int i = 0; i < size; i++) {
 			for (int j = 0; j < size; j++) {
-				if (game.getTokenColor(i, j) == null)
-					actualState[i][j] = 0;
-				else if (game.getTokenColor(i, j) == color)
-					actualState[i][j] = 1;
+				if (rootState[i][j] == state[i][j])
+					continue;
+				if (rootState[i][j] == 0 && state[i][j] == 1 && own == -1)
+					own = i * size + j;
+				else if (rootState[i][j] == 0 && state[i][j] == -1 && reply == -1)
+					reply = i * size + j;
 				else
-					actualState[i][j] = -1;
+					return null;
 			}
 		}
-		return actualState;
+		return own != -1 && reply != -1 ? new int[] { own, reply } : null;
 	}
 
-	private int[] maxValue(TState state, int depth, Integer alpha, Integer beta) {
-		if (state.hasWinner())
-			return new int[] { 1000000, state.getActualMove()[0], state.getActualMove()[1] };
-		if (depth == 0 ) {
-			int[] actualMove = state.getActualMove();
-			return new int[] { evaluate(state,1), actualMove[0], actualMove[1] };
-		}
-		int[][] bestMoves = getBestPossibleMoves(state, childs);
-		int value = Integer.MIN_VALUE;
-		int[] actualBest = new int[2];
-		for (int i = 0; i < bestMoves.length; i++) {
-			int[] move = bestMoves[i];
-			TState newState = new TState(state.makeNewState(move), move);
-			int result = minValue(newState, depth - 1, alpha, beta)[0];
-			if (result > value) {
-				value = result;
-				actualBest = move;
-			}
-			if (value >= beta)
-				return new int[] { value, move[0], move[1] };
-			alpha = Math.max(alpha, value);
-		}
-		return new int[] { value, actualBest[0], actualBest[1] };
-	}
-
-	private int[] minValue(TState state, int depth, Integer alpha, Integer beta) {
-		if (state.hasWinner()){
-			return new int[] { 1000000, state.getActualMove()[0], state.getActualMove()[1] };
-		}
-		if (depth == 0) {
-			int[] actualMove = state.getActualMove();
-			return new int[] { evaluate(state,-1), actualMove[0], actualMove[1] };
-		}
-		int[][] bestMoves = getBestPossibleMoves(state, childs);
-		int value = Integer.MAX_VALUE;
-		int[] actualBest = new int[2];
-		for (int i = bestMoves.length - 1; i >= 0; i--) {
-			int[] move = bestMoves[i];
-			TState newState = new TState(state.makeNewState(move), move);
-			int result = maxValue(newState, depth - 1, alpha, beta)[0];
-			if (result < value) {
-				value = result;
-				actualBest = move;
-			}
-			if (value <= alpha)
-				return new int[] { value, move[0], move[1] };
-			beta = Math.min(beta, value);
-		}
-		return new int[] { value, actualBest[0], actualBest[1] };
+	/**
+	 * Sets the depth limit of the iterative deepening.
+	 *
+	 * @param depth The maximum depth searched.
+	 */
+	public static void setMaxDepth(int depth) {
+		maxDepth = depth;
 	}
 
-	private int[][] getBestPossibleMoves(TState state, int numberOfMoves) {
+	/**
+	 * Sets the time used per move in games without time limit.
+	 *
+	 * @param mili The time per move in milliseconds.
+	 */
+	public static void setMoveTime(int mili) {
+		moveTime = mili;
+	}
 
-		this.size = game.getSize();
-		int[][] bestMoves1 = evaluateGame(state, false);
-		int[][] bestMoves2 = evaluateGame(state, true);
+	/**
+	 * Sets the time kept in reserve in games with time limit.
+	 *
+	 * @param mili The safety margin in milliseconds.
+	 */
+	public static void setSafetyMargin(int mili) {
+		safetyMargin = mili;
+	}
 
-		PriorityQueue<int[]> bestMoves = new PriorityQueue<>(Comparator.comparingInt((int[] a) -> a[0]).reversed());
+	/**
+	 * Sets the half width of the aspiration window of every iteration.
+	 *
+	 * @param width The distance from the previous score to each bound.
+	 */
+	public static void setAspiration(int width) {
+		aspiration = Math.max(width, 1);
+	}
 
-		for (int l = 0; l < size; l++) {
-			for (int m = 0; m < size; m++) {
-				int value = (bestMoves1[l][m] + bestMoves2[l][m]) / 2;
-				bestMoves.add(new int[] { value, l, m });
-			}
-		}
+	/**
+	 * Enables or disables pondering: searching the predicted reply of the opponent
+	 * while it is thinking.
+	 *
+	 * @param enabled True to search on the time of the opponent.
+	 */
+	public static void setPondering(boolean enabled) {
+		pondering = enabled;
+	}
 
-		int[][] best = new int[numberOfMoves][2];
-		for (int i = 0; i < numberOfMoves; i++) {
-			int[] actual = bestMoves.poll();
-			best[i] = new int[] { actual[1], actual[2] };
-		}
-		return best;
+	/**
+	 * Retrieves the principal variation of the last search: the moves the player
+	 * expects from both sides, starting with its own move.
+	 *
+	 * @return An array with the row and column of every move of the line.
+	 */
+	public int[][] getPrincipalVariation() {
+		return principalVariation;
 	}
 
-	private int[][] evaluateGame(TState state, boolean attack) {
-		Node[][] nodeState = new Node[size][size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				int value = state.getValue(i, j);
-				if (!attack)
-					value *= -1;
-				nodeState[i][j] = new Node(value, i, j);
-			}
-		}
-		return evaluateGameMoves(nodeState);
+	/**
+	 * Sets the number of threads of the search, more than one enables the Lazy SMP mode.
+	 *
+	 * @param number The number of search threads.
+	 */
+	public static void setThreads(int number) {
+		threads = Math.max(number, 1);
 	}
 
-	private int[][] evaluateGameMoves(Node[][] state) {
-		int[][] bestMoves = new int[size][size];
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column++) {
-				bestMoves[row][column] = 0;
+	/**
+	 * A search thread. Every searcher owns its board, counters and move ordering
+	 * tables (two killer moves per ply and a history score per square and side)
+	 * and shares the transposition table, the deadline and the stop flag of the
+	 * player.
+	 */
+	private class Searcher implements Runnable {
+		private TState state;
+		private int id;
+		private long nodes;
+		private boolean canAbort;
+		private boolean aborted;
+		private int[] bestMove;
+		private int[][] variation;
+		private int reached;
+		private int[][] killers;
+		private int[][] history;
+		private int[][] pv;
+		private int[] pvLength;
+
+		Searcher(TState state, int id) {
+			this.state = state;
+			this.id = id;
+			this.killers = new int[maxDepth + 1][];
+			for (int ply = 0; ply <= maxDepth; ply++) {
+				killers[ply] = new int[] { -1, -1 };
 			}
+			this.history = new int[2][size * size];
+			this.pv = new int[maxDepth + 1][maxDepth + 1];
+			this.pvLength = new int[maxDepth + 1];
+			this.variation = new int[0][];
 		}
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column++) {
-				if (state[row][column].getValue() > 0 && !state[row][column].isVisited()) {
-					for (int i = 0; i < 8; i++) {
-						if (beTheFirst(state, row, column, i)) {
-							ArrayList<Node> path = dfs(state, bestMoves, row, column, i, new ArrayList<>());
-							for (Node x : path) {
-								x.setLastToken(-1);
-								x.setBlocked(false);
-							}
-						}
+
+		/**
+		 * Runs the iterative deepening. Helpers with an odd id start one ply deeper
+		 * so the threads do not walk the tree in lockstep.
+		 */
+		@Override
+		public void run() {
+			nodes = 0;
+			aborted = false;
+			bestMove = null;
+			variation = new int[0][];
+			reached = 0;
+			int score = 0;
+			for (int d = 1 + (id % 2); d <= maxDepth && !aborted; d++) {
+				canAbort = d > 1 || id != 0;
+				int result = aspirationSearch(d, score, d > 1 + (id % 2));
+				if (!aborted && pvLength[0] > 0) {
+					score = result;
+					variation = new int[pvLength[0]][];
+					for (int i = 0; i < pvLength[0]; i++) {
+						variation[i] = new int[] { pv[0][i] / size, pv[0][i] % size };
 					}
+					bestMove = variation[0];
+					reached = d;
+					if (score >= WIN - MAX_PLY || System.nanoTime() >= deadline)
+						break;
 				}
 			}
 		}
-		return bestMoves;
-	}
 
-	private int evaluate(TState state, int player) {
-		Node[][] nodeState1 = new Node[size][size];
-		
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				int value = player*state.getValue(i, j);
-				nodeState1[i][j] = new Node(value, i, j);
+		/**
+		 * Advances the board by the move of the player and the reply of the opponent,
+		 * halving the history scores and moving the killer moves two plies up, so the
+		 * next search starts from what this one learned.
+		 */
+		void advance(int own, int reply) {
+			state.advance(own / size, own % size);
+			state.advance(reply / size, reply % size);
+			for (int[] scores : history) {
+				for (int square = 0; square < scores.length; square++) {
+					scores[square] >>= 1;
+				}
+			}
+			for (int ply = 0; ply <= maxDepth; ply++) {
+				killers[ply] = ply + 2 <= maxDepth ? killers[ply + 2] : new int[] { -1, -1 };
 			}
 		}
-		Node[][] nodeState2 = new Node[size][size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				int value = (-1)*player*state.getValue(i, j);
-				nodeState2[i][j] = new Node(value, i, j);
+
+		/**
+		 * Searches the root with a window of aspiration around the previous score,
+		 * widening the failing bound until the score falls inside the window.
+		 */
+		private int aspirationSearch(int depth, int previous, boolean narrow) {
+			int delta = aspiration;
+			boolean decided = previous >= WIN - MAX_PLY || previous <= -WIN + MAX_PLY;
+			int alpha = narrow && !decided ? previous - delta : -INFINITY;
+			int beta = narrow && !decided ? previous + delta : INFINITY;
+			while (true) {
+				int score = search(state, depth, alpha, beta);
+				if (aborted)
+					return score;
+				if (score <= alpha && alpha != -INFINITY) {
+					delta *= 4;
+					alpha = delta >= WIN ? -INFINITY : previous - delta;
+				} else if (score >= beta && beta != INFINITY) {
+					delta *= 4;
+					beta = delta >= WIN ? INFINITY : previous + delta;
+				} else {
+					return score;
+				}
 			}
 		}
-		int result1 = 0;
-		int result2 = 0;
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column++) {
-				if (nodeState1[row][column].getValue() > 0 && !nodeState1[row][column].isVisited()) {
-					for (int i = 0; i < 8; i++) {
-						if (beTheFirst(nodeState1, row, column, i)) {
-							ArrayList<Node> path = dfsEvaluation(nodeState1, row, column, i, new ArrayList<>());
-							result1 += analizePath(path);
-							for (Node x : path) {
-								x.setLastToken(-1);
-								x.setBlocked(false);
-							}
-						}
-					}
+
+		/**
+		 * Checks the clock, once the first iteration is done the search stops when
+		 * the deadline passes or the main searcher has finished.
+		 */
+		private boolean timeOut() {
+			if (canAbort && !aborted && (stop || System.nanoTime() >= deadline))
+				aborted = true;
+			return aborted;
+		}
+
+		/**
+		 * Principal variation search in negamax form: scores are seen by the side to
+		 * move. The first move is searched with the full window and the others with
+		 * a null window, searching them again only when they beat alpha. The line
+		 * of best moves is kept in pv.
+		 */
+		private int search(TState state, int depth, int alpha, int beta) {
+			int ply = state.getPly();
+			nodes++;
+			pvLength[ply] = ply;
+			if (timeOut())
+				return 0;
+			if (state.hasWinner())
+				return -(WIN - ply);
+			if (depth == 0)
+				return evaluate(state, 1);
+			boolean pvNode = beta - alpha > 1;
+			long entry = table.probe(state.getHash());
+			if (entry != 0 && !pvNode) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				if (cutoff(entry, score, depth, alpha, beta))
+					return score;
+			}
+			int[][] bestMoves = getBestPossibleMoves(state, childs);
+			if (bestMoves.length == 0)
+				return evaluate(state, 1);
+			sortMoves(state, bestMoves, entry != 0 ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE);
+			int alphaOrig = alpha;
+			int best = -INFINITY;
+			int bestSquare = TranspositionTable.NO_MOVE;
+			for (int i = 0; i < bestMoves.length; i++) {
+				int[] move = bestMoves[i];
+				state.make(move[0], move[1]);
+				int score;
+				if (i == 0) {
+					score = -search(state, depth - 1, -beta, -alpha);
+				} else {
+					score = -search(state, depth - 1, -alpha - 1, -alpha);
+					if (score > alpha && score < beta && !aborted)
+						score = -search(state, depth - 1, -beta, -alpha);
 				}
-				if (nodeState2[row][column].getValue() > 0 && !nodeState2[row][column].isVisited()) {
-					for (int i = 0; i < 8; i++) {
-						if (beTheFirst(nodeState2, row, column, i)) {
-							ArrayList<Node> path = dfsEvaluation(nodeState2, row, column, i, new ArrayList<>());
-							int val = analizePath(path);
-							if (-10<=val && val < 0) val = 1000;
-							else if (-20<=val && val < -10) val = 10000;
-							result2 += val;
-							for (Node x : path) {
-								x.setLastToken(-1);
-								x.setBlocked(false);
-							}
+				state.unmake();
+				if (aborted)
+					return 0;
+				if (score > best) {
+					best = score;
+					bestSquare = move[0] * size + move[1];
+					if (score > alpha) {
+						alpha = score;
+						pv[ply][ply] = bestSquare;
+						for (int k = ply + 1; k < pvLength[ply + 1]; k++) {
+							pv[ply][k] = pv[ply + 1][k];
 						}
+						pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
 					}
 				}
+				if (alpha >= beta) {
+					rememberCutoff(state, move, depth);
+					break;
+				}
 			}
+			int bound = best >= beta ? TranspositionTable.LOWER
+					: best <= alphaOrig ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+			table.store(state.getHash(), depth, bound, toTable(best, ply), bestSquare);
+			return best;
 		}
-		return result1-result2;
-	}
 
-	private ArrayList<Node> dfsEvaluation(Node[][] state, int i, int j, int direction, ArrayList<Node> path) {
-		path.add(state[i][j]);
+		/**
+		 * Orders the moves of a node: first the move of the transposition table,
+		 * then the killer moves of the ply and then the rest by history score,
+		 * keeping the order of getBestPossibleMoves between equal moves.
+		 */
+		private void sortMoves(TState state, int[][] bestMoves, int ttMove) {
+			int from = ttMove != TranspositionTable.NO_MOVE && orderMoves(state, bestMoves, ttMove) ? 1 : 0;
+			int[] killer = killers[Math.min(state.getPly(), maxDepth)];
+			int[] scores = history[state.getSideToMove()];
+			int[] keys = new int[bestMoves.length];
+			for (int i = from; i < bestMoves.length; i++) {
+				int square = bestMoves[i][0] * size + bestMoves[i][1];
+				keys[i] = square == killer[0] ? Integer.MAX_VALUE
+						: square == killer[1] ? Integer.MAX_VALUE - 1 : scores[square];
+				int[] move = bestMoves[i];
+				int key = keys[i];
+				int k = i;
+				while (k > from && keys[k - 1] < key) {
+					keys[k] = keys[k - 1];
+					bestMoves[k] = bestMoves[k - 1];
+					k--;
+				}
+				keys[k] = key;
+				bestMoves[k] = move;
+			}
+		}
 
-		int row = i + moves[direction][0];
-		int column = j + moves[direction][1];
+		/**
+		 * Records a move that caused a cutoff as killer move of its ply and raises
+		 * its history score, more for deeper searches.
+		 */
+		private void rememberCutoff(TState state, int[] move, int depth) {
+			int square = move[0] * size + move[1];
+			int[] killer = killers[Math.min(state.getPly(), maxDepth)];
+			if (killer[0] != square) {
+				killer[1] = killer[0];
+				killer[0] = square;
+			}
+			history[state.getSideToMove()][square] += depth * depth;
+		}
+	}
 
-		state[i][j].setVisitedDirection(direction);
-		state[i][j].setVisitedDirection(7-direction);
-		if (state[i][j].getValue() < 0){}
-		else if (verify(row, column) && !state[row][column].isVisitedDirection(direction)) {
-			if (path.size() > 1 && path.get(path.size()-1).getValue() == 0){
-				if (state[i][j].getValue() > 0)
-					path = dfsEvaluation(state, row, column, direction, path);
+	private int[][] makeActualState() {
+		this.size = game.getSize();
+		int[][] actualState = new int[size][size];
+		BitBoard bits = game.getBoard().getBitBoard();
+		int me = game.getBoard().getPlayerIndex(color);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int owner = bits.getOwner(i, j);
+				if (owner == -1)
+					actualState[i][j] = 0;
+				else if (owner == me)
+					actualState[i][j] = 1;
+				else
+					actualState[i][j] = -1;
 			}
-			else
-				path = dfsEvaluation(state, row, column, direction, path);
-		}
-		else if (!verify(row, column))
-			state[i][j].setBlocked(true);
-		return path;
-	}
-
-	private int analizePath(ArrayList<Node> path){
-		int result = 0;
-		ArrayList<Integer> arr = new ArrayList<>();
-		if (path.get(0).isBlocked())
-			arr.add(-1);	
-		for (Node node : path){
-			arr.add(node.getValue());
-		}
-		if (path.get(path.size()-1).getValue() > 0 && path.get(path.size()-1).isBlocked())
-			arr.add(-1);
-		ArrayList<Integer> arrInversed = new ArrayList<>();
-		for (int i = arr.size()-1; i >= 0; i--){
-			arrInversed.add(arr.get(i));
-		}
-		String pattern = "";
-		String reverse = "";
-		for (int i = 0; i < arr.size(); i++){
-			pattern += arr.get(i);
-			reverse += arrInversed.get(i);
-		}
-		for (int i = 0; i < patterns.size(); i++){
-			if (pattern.equals(patterns.get(i))) result += results.get(i);
-			else if (reverse.equals(patterns.get(i))) result += results.get(i);
-			else if (!path.get(0).isBlocked() && ("0"+pattern).equals(patterns.get(i))) 
-				result += results.get(i);
-			else if (!path.get(path.size()-1).isBlocked() && (pattern+"0").equals(patterns.get(i))) 
-				result += results.get(i);
-			
 		}
-		return result;
+		return actualState;
 	}
 
-	
+	/**
+	 * Checks if a transposition table entry, searched deep enough, is enough to
+	 * answer the node inside the window (alpha, beta).
+	 */
+	private boolean cutoff(long entry, int score, int depth, int alpha, int beta) {
+		if (TranspositionTable.depth(entry) < depth || TranspositionTable.move(entry) == TranspositionTable.NO_MOVE)
+			return false;
+		int bound = TranspositionTable.bound(entry);
+		return bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+				|| (bound == TranspositionTable.UPPER && score <= alpha);
+	}
 
-	private ArrayList<Node> dfs(Node[][] state, int[][] bestMoves, int i, int j, int direction, ArrayList<Node> path) {
-		path.add(state[i][j]);
-		if (state[i][j].lastToken() + 5 == path.size()) {
-		} else if (state[i][j].getValue() < 0) {
-			state[i][j].setBlocked(true);
-		} else {
-			int row = i + moves[direction][0];
-			int column = j + moves[direction][1];
+	// Las victorias se guardan contadas desde la posicion y no desde la raiz
+	private static int toTable(int score, int ply) {
+		if (score >= WIN - MAX_PLY)
+			return score + ply;
+		if (score <= -WIN + MAX_PLY)
+			return score - ply;
+		return score;
+	}
 
-			state[i][j].setVisitedDirection(direction);
+	private static int fromTable(int score, int ply) {
+		if (score >= WIN - MAX_PLY)
+			return score - ply;
+		if (score <= -WIN + MAX_PLY)
+			return score + ply;
+		return score;
+	}
 
-			if (verify(row, column) && !state[row][column].isVisitedDirection(direction)) {
-				if (state[i][j].getValue() > 0)
-					state[row][column].setLastToken(path.size() - 1);
-				else
-					state[row][column].setLastToken(state[i][j].lastToken());
-				path = dfs(state, bestMoves, row, column, direction, path);
-			} else if (!verify(row, column))
-				state[i][j].setBlocked(true);
+	/**
+	 * Moves the best move remembered by the transposition table to the front of
+	 * the candidate list, so it is searched first. If it is not a candidate and
+	 * its square is empty, it takes the place of the weakest one.
+	 *
+	 * @return True if the move was put in front, false if its square is taken.
+	 */
+	private boolean orderMoves(TState state, int[][] bestMoves, int square) {
+		int row = square / size;
+		int column = square % size;
+		int found = bestMoves.length - 1;
+		for (int i = 0; i < bestMoves.length; i++) {
+			if (bestMoves[i][0] == row && bestMoves[i][1] == column) {
+				found = i;
+				break;
+			}
+		}
+		if (bestMoves[found][0] != row || bestMoves[found][1] != column) {
+			if (state.getValue(row, column) != 0)
+				return false;
+			bestMoves[found] = new int[] { row, column };
 		}
+		int[] move = bestMoves[found];
+		for (int i = found; i > 0; i--) {
+			bestMoves[i] = bestMoves[i - 1];
+		}
+		bestMoves[0] = move;
+		return true;
+	}
 
-		int rang = Math.max(path.indexOf(state[i][j]) - 4, 0);
-		int limit = Math.min(rang + 5, path.size());
-		int index = state[i][j].lastToken();
+	/**
+	 * Selects the best candidate moves of the side to move. Only the empty squares
+	 * near a stone are scored, and the best ones are kept sorted in primitive
+	 * arrays, ties going to the square with more stones around and then to the
+	 * lowest square. When no empty square is near a
+	 * stone, as on an empty board, the first empty square from the center is the
+	 * only candidate.
+	 *
+	 * @param state         The search state.
+	 * @param numberOfMoves The maximum number of moves returned.
+	 * @return The row and column of the best moves, the best first.
+	 */
+	private int[][] getBestPossibleMoves(TState state, int numberOfMoves) {
+		if (state.getCandidateCount() == 0)
+			return firstEmpty(state, (size / 2) * size + size / 2);
+		int[] bestScores = new int[numberOfMoves];
+		int[] bestNear = new int[numberOfMoves];
+		int[] bestSquares = new int[numberOfMoves];
+		int found = 0;
+		for (int i = 0; i < state.getCandidateCount(); i++) {
+			int square = state.getCandidate(i);
+			int score = state.scoreMove(square);
+			int near = state.getNear(square);
+			int k = found < numberOfMoves ? found++ : numberOfMoves;
+			while (k > 0 && (bestScores[k - 1] < score || (bestScores[k - 1] == score
+					&& (bestNear[k - 1] < near || (bestNear[k - 1] == near && bestSquares[k - 1] > square))))) {
+				if (k < numberOfMoves) {
+					bestScores[k] = bestScores[k - 1];
+					bestNear[k] = bestNear[k - 1];
+					bestSquares[k] = bestSquares[k - 1];
+				}
+				k--;
+			}
+			if (k < numberOfMoves) {
+				bestScores[k] = score;
+				bestNear[k] = near;
+				bestSquares[k] = square;
+			}
+		}
+		int[][] best = new int[found][];
+		for (int i = 0; i < found; i++) {
+			best[i] = new int[] { bestSquares[i] / size, bestSquares[i] % size };
+		}
+		return best;
+	}
 
-		if (index != -1) {
-			int distances = 0;
-			int numTokens = 0;
+	// Primera casilla vacia desde start en orden de filas
+	private int[][] firstEmpty(TState state, int start) {
+		for (int k = 0; k < size * size; k++) {
+			int square = (start + k) % (size * size);
+			if (state.getValue(square / size, square % size) == 0)
+				return new int[][] { { square / size, square % size } };
+		}
+		return new int[0][];
+	}
 
-			for (int k = rang; k < limit; k++) {
-				int lt = path.get(k).lastToken();
-				int i1 = path.get(k).getRow();
-				int j1 = path.get(k).getColumn();
+	/**
+	 * Evaluates the position from the point of view of a player, as the value of
+	 * its lines minus the threats of its opponent. The state keeps the score of
+	 * every line up to date on make and unmake, so this is a lookup.
+	 *
+	 * @param state  The search state.
+	 * @param player 1 for the side to move, -1 for its opponent.
+	 * @return The evaluation of the position.
+	 */
+	private int evaluate(TState state, int player) {
+		return state.getScore(player);
+	}
 
-				if ((path.get(k).getValue() > 0) && (lt == -1 || !(lt < rang && lt == k - 1))) {
-					distances += (5 - calculateDistance(i, j, i1, j1));
-					numTokens += path.get(k).getValue();
+	/**
+	 * Scores one line of the board for a player. The line is walked in the same
+	 * order the board is, and every path starting at a stone of the player (one
+	 * towards each end) is scored with the pattern table. A path takes the
+	 * consecutive stones of the player and the square that stops them, and a
+	 * path that meets the squares of a previous one stops there.
+	 *
+	 * @param line   The values of the squares of the line, from its first square.
+	 * @param length The number of squares of the line.
+	 * @param own    The value of the stones of the player in line.
+	 * @param marked Scratch space of at least length squares.
+	 * @param result Receives the sum of the path scores in result[0] and the sum
+	 *               of their scores as threats of the opponent in result[1].
+	 */
+	static void scoreLine(int[] line, int length, int own, boolean[] marked, int[] result) {
+		int paths = 0;
+		int threats = 0;
+		for (int k = 0; k < length; k++) {
+			marked[k] = false;
+		}
+		for (int start = 0; start < length; start++) {
+			if (line[start] != own)
+				continue;
+			for (int step = -1; step <= 1; step += 2) {
+				// Solo empieza el camino la primera ficha, un rival detras lo bloquea
+				boolean first = true;
+				boolean startBlocked = false;
+				for (int k = 1; k < 5; k++) {
+					int behind = start - step * k;
+					if (behind < 0 || behind >= length)
+						continue;
+					if (line[behind] == own) {
+						first = false;
+						break;
+					} else if (line[behind] == -own) {
+						startBlocked = true;
+						break;
+					}
 				}
-			}
-
-			if (state[i][j].getValue() == 0) {
-				if (numTokens == 3)
-					numTokens++;
-				if (numTokens == 4)
-					numTokens+=2;
-				if (path.get(limit - 1).isBlocked() || path.get(0).isBlocked())
-					bestMoves[i][j] += Math.sqrt(Math.pow(distances, numTokens));
+				if (!first)
+					continue;
+				int end = start;
+				int count = 0;
+				boolean endBlocked = false;
+				while (true) {
+					int value = line[end] * own;
+					marked[end] = true;
+					count++;
+					if (value < 0)
+						break;
+					int next = end + step;
+					if (next < 0 || next >= length) {
+						endBlocked = true;
+						break;
+					}
+					if (marked[next] || (count > 1 && value == 0))
+						break;
+					end = next;
+				}
+				boolean firstBlocked = startBlocked || (count == 1 && endBlocked);
+				boolean lastBlocked = endBlocked || (count == 1 && startBlocked);
+				boolean closed = lastBlocked && line[end] == own;
+				int score = 0;
+				int size = count + (firstBlocked ? 1 : 0) + (closed ? 1 : 0);
+				if (size <= WINDOW) {
+					int code = firstBlocked ? 2 : 0;
+					for (int k = 0, square = start; k < count; k++, square += step) {
+						code = code * 3 + digit(line[square] * own);
+					}
+					if (closed)
+						code = code * 3 + 2;
+					score = scores[(firstBlocked ? 1 : 0) | (lastBlocked ? 2 : 0)][offsets[size] + code];
+				}
+				paths += score;
+				if (-10 <= score && score < 0)
+					threats += 1000;
+				else if (-20 <= score && score < -10)
+					threats += 10000;
 				else
-					bestMoves[i][j] += Math.pow(distances, numTokens);
+					threats += score;
 			}
 		}
-		return path;
+		result[0] = paths;
+		result[1] = threats;
 	}
 
-	public boolean beTheFirst(Node[][] state, int row, int column, int direction) {
-		int[] move = inverseMoves[direction];
-		boolean flag = true;
-
-		for (int i = 1; i < 5 && flag; i++) {
-			int r = row + (move[0] * i);
-			int c = column + (move[1] * i);
-			if (verify(r, c) && state[r][c].getValue() > 0)
-				flag = false;
-			else if (verify(r, c) && state[r][c].getValue() < 0) {
-				state[row][column].setBlocked(true);
-				break;
+	/**
+	 * Compiles the patterns into the scores table. For every line of up to WINDOW
+	 * values and every combination of blocked ends it stores the sum of the
+	 * results of the patterns the line matches: as it is, reversed, or with an
+	 * empty square added at an end that is not blocked.
+	 */
+	private static void compilePatterns() {
+		int[][] compiled = new int[patterns.size()][];
+		for (int i = 0; i < patterns.size(); i++) {
+			compiled[i] = parsePattern(patterns.get(i));
+		}
+		int total = 0;
+		for (int length = 1, codes = 3; length <= WINDOW; length++, codes *= 3) {
+			offsets[length] = total;
+			total += codes;
+		}
+		offsets[WINDOW + 1] = total;
+		scores = new int[4][total];
+		int[] line = new int[WINDOW];
+		for (int length = 1; length <= WINDOW; length++) {
+			for (int code = 0; code < offsets[length + 1] - offsets[length]; code++) {
+				for (int k = length - 1, c = code; k >= 0; k--, c /= 3) {
+					line[k] = c % 3 == 2 ? -1 : c % 3;
+				}
+				for (int blocked = 0; blocked < 4; blocked++) {
+					int result = 0;
+					for (int i = 0; i < compiled.length; i++) {
+						int[] p = compiled[i];
+						boolean same = p.length == length && (matches(p, 0, line, length, false) || matches(p, 0, line, length, true));
+						boolean extended = p.length == length + 1
+								&& (((blocked & 1) == 0 && p[0] == 0 && matches(p, 1, line, length, false))
+										|| ((blocked & 2) == 0 && p[length] == 0 && matches(p, 0, line, length, false)));
+						if (same || extended)
+							result += results.get(i);
+					}
+					scores[blocked][offsets[length] + code] = result;
+				}
 			}
 		}
-		return flag;
 	}
 
-	public boolean verify(int r, int c) {
-		boolean flag = false;
-		if (0 <= r && r < size && 0 <= c && c < size)
-			flag = true;
-		return flag;
-
+	// Compara el patron desde la posicion from con la linea, al derecho o al reves
+	private static boolean matches(int[] pattern, int from, int[] line, int length, boolean reversed) {
+		for (int k = 0; k < length; k++) {
+			if (pattern[from + k] != line[reversed ? length - 1 - k : k])
+				return false;
+		}
+		return true;
 	}
 
-	private double calculateDistance(int row1, int col1, int row2, int col2) {
-		double dis;
-		if (Math.abs(row1 - row2) == 1 && Math.abs(col1 - col2) == 1)
-			dis = 1;
-		else if (Math.abs(row1 - row2) == 2 && Math.abs(col1 - col2) == 2)
-			dis = 2;
-		else if (Math.abs(row1 - row2) == 3 && Math.abs(col1 - col2) == 3)
-			dis = 3;
-		else if (Math.abs(row1 - row2) == 4 && Math.abs(col1 - col2) == 4)
-			dis = 4;
-		else if (Math.abs(row1 - row2) == 5 && Math.abs(col1 - col2) == 5)
-			dis = 5;
-		else
-			dis = Math.sqrt(Math.pow(row1 - row2, 2) + Math.pow(col1 - col2, 2));
-		return dis;
+	// Convierte un patron como "-1111-1" en los valores {-1, 1, 1, 1, 1, -1}
+	private static int[] parsePattern(String pattern) {
+		ArrayList<Integer> values = new ArrayList<>();
+		for (int i = 0; i < pattern.length(); i++) {
+			if (pattern.charAt(i) == '-') {
+				values.add(-1);
+				i++;
+			} else {
+				values.add(pattern.charAt(i) - '0');
+			}
+		}
+		int[] result = new int[values.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = values.get(i);
+		}
+		return result;
 	}
 
+	// Digito en base 3 de un valor: 0 vacio, 1 propio, 2 rival
+	private static int digit(int value) {
+		return value < 0 ? 2 : value;
+	}
 }
 //Verified
+/**
+ * Mutable search board of the perfect machine player. The search plays and takes
+ * back moves in place with make and unmake instead of copying the grid, so a node
+ * costs no allocation. Stones are stored with a fixed sign (1 for the player that
+ * was to move at the root, -1 for its opponent); getValue answers relative to the
+ * side to move, that is 1 for its stones and -1 for the opponent's ones.
+ */
 class TState {
-	private int[][] state;
-	private int[] actualMove;
+	private static final int FIVE = 1000000;
+	private int size;
+	private int[] cells;
+	private int turn;
+	private int sideToMove;
+	private int[] moves;
+	private int count;
+	private long hash;
+	// Puntaje de cada linea por eje: {caminos de 1, amenazas de 1, caminos de -1, amenazas de -1}
+	private int[][][] lineScores;
+	private int[] totals;
+	private int[] line;
+	private boolean[] marked;
+	private int[] result;
+	// Candidatas: casillas vacias a distancia 2 o menos de alguna ficha
+	private int[] near;
+	private int[] candidates;
+	private int[] position;
+	private int candidateCount;
+	private int[] moveScores;
+	private boolean[] stale;
+
+	/**
+	 * Creates a search state from a grid where 1 are the stones of the side to move
+	 * and -1 the stones of its opponent, computing its Zobrist hash.
+	 *
+	 * @param state      The grid of the position.
+	 * @param sideToMove The board index of the player to move.
+	 */
+	public TState(int[][] state, int sideToMove) {
+		this.size = state.length;
+		this.cells = new int[size * size];
+		this.turn = 1;
+		this.sideToMove = sideToMove;
+		this.moves = new int[size * size];
+		this.count = 0;
+		this.hash = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				cells[i * size + j] = state[i][j];
+				if (state[i][j] != 0) {
+					int player = state[i][j] == 1 ? sideToMove : 1 - sideToMove;
+					hash ^= Zobrist.key(i * size + j, player, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+				}
+			}
+		}
+		this.lineScores = new int[4][2 * size - 1][4];
+		this.totals = new int[4];
+		this.line = new int[size];
+		this.marked = new boolean[size];
+		this.result = new int[2];
+		this.near = new int[size * size];
+		this.candidates = new int[size * size];
+		this.position = new int[size * size];
+		this.candidateCount = 0;
+		this.moveScores = new int[size * size];
+		this.stale = new boolean[size * size];
+		for (int square = 0; square < size * size; square++) {
+			position[square] = -1;
+			stale[square] = true;
+		}
+		for (int square = 0; square < size * size; square++) {
+			if (cells[square] != 0)
+				updateNear(square, 1);
+		}
+		for (int i = 0; i < size; i++) {
+			updateLines(i, 0);
+			updateLines(0, i);
+			updateLines(size - 1, i);
+		}
+	}
 
-	public TState(int[][] state, int[] actualMove) {
-		this.state = state;
-		this.actualMove = actualMove;
+	/**
+	 * Plays a move with the side to move and passes the turn.
+	 *
+	 * @param row    The row of the move.
+	 * @param column The column of the move.
+	 */
+	public void make(int row, int column) {
+		int square = row * size + column;
+		cells[square] = turn;
+		hash ^= Zobrist.key(square, sideToMove, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+		moves[count++] = square;
+		turn = -turn;
+		sideToMove = 1 - sideToMove;
+		updateLines(row, column);
+		removeCandidate(square);
+		updateNear(square, 1);
+		markStale(row, column);
 	}
 
-	
+	/**
+	 * Plays a move that was really played in the game and makes the new position the
+	 * root of the state, the move can not be taken back.
+	 *
+	 * @param row    The row of the move.
+	 * @param column The column of the move.
+	 */
+	public void advance(int row, int column) {
+		make(row, column);
+		count = 0;
+	}
 
-	public int[][] getState() {
-		return state;
+	/**
+	 * Takes back the last move played with make.
+	 */
+	public void unmake() {
+		int square = moves[--count];
+		turn = -turn;
+		sideToMove = 1 - sideToMove;
+		cells[square] = 0;
+		hash ^= Zobrist.key(square, sideToMove, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+		updateLines(square / size, square % size);
+		updateNear(square, -1);
+		markStale(square / size, square % size);
 	}
 
-	public int getValue(int i, int j) {
-		return state[i][j];
+	/**
+	 * Retrieves the number of stones at distance 2 or less of a square.
+	 *
+	 * @param square The square (row * size + column).
+	 * @return The number of stones around the square.
+	 */
+	public int getNear(int square) {
+		return near[square];
 	}
 
-	public int[] getActualMove() {
-		return actualMove;
+	public int getCandidateCount() {
+		return candidateCount;
 	}
 
-	public int[][] makeNewState(int[] move) {
-		int[][] newState = new int[state.length][state.length];
-		for (int i = 0; i < state.length; i++) {
-			for (int j = 0; j < state.length; j++) {
-				newState[i][j] = state[i][j] * (-1);
-			}
+	/**
+	 * Retrieves a candidate square, an empty square at distance 2 or less of a stone.
+	 *
+	 * @param index The index of the candidate, between 0 and getCandidateCount() - 1.
+	 * @return The square (row * size + column) of the candidate.
+	 */
+	public int getCandidate(int index) {
+		return candidates[index];
+	}
+
+	/**
+	 * Scores a candidate square as what the side to move gains by playing there
+	 * plus what its opponent would gain by playing there. Only the squares of the
+	 * four lines at distance WINDOW - 1 or less are scored, so the cost does not
+	 * depend on the size of the board. A square that completes five for either
+	 * player gets a bonus, since it must be played or blocked. The score is the
+	 * same for both players, so it is kept until a square of those lines changes.
+	 *
+	 * @param square The square of the candidate.
+	 * @return The score of the candidate.
+	 */
+	public int scoreMove(int square) {
+		if (stale[square]) {
+			moveScores[square] = computeMoveScore(square);
+			stale[square] = false;
 		}
-		newState[move[0]][move[1]] = -1;
-		return newState;
+		return moveScores[square];
 	}
 
-	public boolean hasWinner() {
-        int x = actualMove[0];
-        int y = actualMove[1];
-		if (x==-1 || y==-1) return false;
-        int player = state[x][y];
-        if (isExactlyFive(x, y, 0, 1, player)) 
-            return true;
-        if (isExactlyFive(x, y, 1, 0, player)) 
-            return true;
-        if (isExactlyFive(x, y, 1, 1, player)) 
-            return true;
-        if (isExactlyFive(x, y, 1, -1, player)) 
-            return true;
-        return false;
-    }
-
-    // Verificar si hay exactamente cinco consecutivos en la dirección dada
-    private boolean isExactlyFive(int x, int y, int dx, int dy, int player) {
-        int totalCount = countConsecutive(x, y, dx, dy, player) + countConsecutive(x, y, -dx, -dy, player) - 1;
-        return totalCount == 5;
-    }
-
-    // Método auxiliar para contar consecutivos en una dirección dada
-    private int countConsecutive(int x, int y, int dx, int dy, int player) {
-        int count = 0;
-        while (x >= 0 && x < state.length && y >= 0 && y < state[0].length && state[x][y] == player) {
-            count++;
-            x += dx;
-            y += dy;
-        }
-        return count;
-    }
-}
+	private int computeMoveScore(int square) {
+		int row = square / size;
+		int column = square % size;
+		int score = 0;
+		for (int[] direction : RunTable.DIRECTIONS) {
+			int dr = direction[0];
+			int dc = direction[1];
+			int back = 0;
+			while (back < PerfectMachinePlayer.WINDOW - 1 && inside(row - dr * (back + 1), column - dc * (back + 1)))
+				back++;
+			int length = 0;
+			int stones = 0;
+			for (int r = row - dr * back, c = column - dc * back; length < back + PerfectMachinePlayer.WINDOW
+					&& inside(r, c); r += dr, c += dc) {
+				line[length] = cells[r * size + c];
+				stones += line[length++] != 0 ? 1 : 0;
+			}
+			if (stones == 0)
+				continue;
+			// Caminos y amenazas de cada jugador antes de jugar
+			PerfectMachinePlayer.scoreLine(line, length, turn, marked, result);
+			int mine = result[0];
+			int mineThreats = result[1];
+			PerfectMachinePlayer.scoreLine(line, length, -turn, marked, result);
+			int theirs = result[0];
+			int theirThreats = result[1];
+			score -= (mine - theirThreats) + (theirs - mineThreats);
+			line[back] = turn;
+			score += lineScore(length, turn);
+			line[back] = -turn;
+			score += lineScore(length, -turn);
+			line[back] = 0;
+			// Los patrones no siempre ven el cinco, que gana o hay que bloquear
+			if (run(length, back, turn) == 5 || run(length, back, -turn) == 5)
+				score += FIVE;
+		}
+		return score;
+	}
 
-class Node {
+	// Largo de la linea de fichas de player que se forma al jugar en center
+	private int run(int length, int center, int player) {
+		int total = 1;
+		for (int k = center - 1; k >= 0 && line[k] == player; k--)
+			total++;
+		for (int k = center + 1; k < length && line[k] == player; k++)
+			total++;
+		return total;
+	}
 
-	private int value;
-	private boolean visited;
-	private boolean[] visitedDirections;
-	private int lastToken;
-	private int row;
-	private int column;
-	private boolean blocked = false;
+	// Caminos del jugador menos amenazas del rival en line
+	private int lineScore(int length, int player) {
+		PerfectMachinePlayer.scoreLine(line, length, player, marked, result);
+		int paths = result[0];
+		PerfectMachinePlayer.scoreLine(line, length, -player, marked, result);
+		return paths - result[1];
+	}
 
-	public Node(int value, int row, int column) {
-		this.value = value;
-		this.visited = false;
-		this.visitedDirections = new boolean[] { false, false, false, false, false, false, false, false };
-		this.lastToken = -1;
-		this.row = row;
-		this.column = column;
+	/**
+	 * Adds a stone (delta 1) or takes it (delta -1) from the count of stones near
+	 * the squares around a square, updating the candidates.
+	 */
+	private void updateNear(int square, int delta) {
+		int row = square / size;
+		int column = square % size;
+		for (int r = Math.max(row - 2, 0); r <= Math.min(row + 2, size - 1); r++) {
+			for (int c = Math.max(column - 2, 0); c <= Math.min(column + 2, size - 1); c++) {
+				int other = r * size + c;
+				near[other] += delta;
+				if (cells[other] == 0 && near[other] == 0)
+					removeCandidate(other);
+				else if (cells[other] == 0 && position[other] == -1)
+					addCandidate(other);
+			}
+		}
 	}
 
-	public boolean isBlocked() {
-		return blocked;
+	// Invalida el puntaje de las casillas cuya ventana contiene la casilla cambiada
+	private void markStale(int row, int column) {
+		stale[row * size + column] = true;
+		for (int[] direction : RunTable.DIRECTIONS) {
+			for (int k = 1; k < PerfectMachinePlayer.WINDOW; k++) {
+				for (int sign = -1; sign <= 1; sign += 2) {
+					int r = row + sign * direction[0] * k;
+					int c = column + sign * direction[1] * k;
+					if (inside(r, c))
+						stale[r * size + c] = true;
+				}
+			}
+		}
 	}
 
-	public void setBlocked(boolean b) {
-		blocked = b;
+	private void addCandidate(int square) {
+		position[square] = candidateCount;
+		candidates[candidateCount++] = square;
 	}
 
-	public boolean isVisitedDirection(int direction) {
-		return visitedDirections[direction];
+	private void removeCandidate(int square) {
+		int index = position[square];
+		if (index == -1)
+			return;
+		int last = candidates[--candidateCount];
+		candidates[index] = last;
+		position[last] = index;
+		position[square] = -1;
 	}
 
-	public void setLastToken(int lastToken) {
-		this.lastToken = lastToken;
+	private boolean inside(int row, int column) {
+		return 0 <= row && row < size && 0 <= column && column < size;
 	}
 
-	public int getRow() {
-		return row;
+	/**
+	 * Retrieves the evaluation of the position for a player: the value of its lines
+	 * minus the threats of its opponent.
+	 *
+	 * @param player 1 for the side to move, -1 for its opponent.
+	 * @return The evaluation of the position.
+	 */
+	public int getScore(int player) {
+		return player * turn == 1 ? totals[0] - totals[3] : totals[2] - totals[1];
 	}
 
-	public int getColumn() {
-		return column;
+	/**
+	 * Scores again the four lines through a square and updates the totals.
+	 */
+	private void updateLines(int row, int column) {
+		// fila, columna, diagonal y diagonal inversa, desde su primera casilla en orden de filas
+		updateLine(0, row, row, 0, 0, 1);
+		updateLine(1, column, 0, column, 1, 0);
+		int shift = Math.min(row, column);
+		updateLine(2, column - row + size - 1, row - shift, column - shift, 1, 1);
+		shift = Math.min(row, size - 1 - column);
+		updateLine(3, row + column, row - shift, column + shift, 1, -1);
 	}
 
-	public void setVisitedDirection(int direction) {
-		visitedDirections[direction] = true;
-		visited = true;
-		for (boolean x : visitedDirections) {
-			if (!x) {
-				visited = false;
-				break;
-			}
+	private void updateLine(int axis, int index, int row, int column, int dr, int dc) {
+		int length = 0;
+		for (int r = row, c = column; 0 <= r && r < size && 0 <= c && c < size; r += dr, c += dc) {
+			line[length++] = cells[r * size + c];
 		}
+		int[] scores = lineScores[axis][index];
+		for (int k = 0; k < 4; k++) {
+			totals[k] -= scores[k];
+		}
+		PerfectMachinePlayer.scoreLine(line, length, 1, marked, result);
+		scores[0] = result[0];
+		scores[1] = result[1];
+		PerfectMachinePlayer.scoreLine(line, length, -1, marked, result);
+		scores[2] = result[0];
+		scores[3] = result[1];
+		for (int k = 0; k < 4; k++) {
+			totals[k] += scores[k];
+		}
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	public int getPly() {
+		return count;
+	}
+
+	public int getSideToMove() {
+		return sideToMove;
+	}
+
+	public int getValue(int i, int j) {
+		return cells[i * size + j] * turn;
 	}
 
-	public int getValue() {
-		return value;
+	public int[] getActualMove() {
+		if (count == 0)
+			return new int[] { -1, -1 };
+		return new int[] { moves[count - 1] / size, moves[count - 1] % size };
 	}
 
-	public int lastToken() {
-		return lastToken;
+	/**
+	 * Checks if the last move made exactly five in a row.
+	 *
+	 * @return True if the player who just moved has won, false otherwise.
+	 */
+	public boolean hasWinner() {
+		if (count == 0)
+			return false;
+		int x = moves[count - 1] / size;
+		int y = moves[count - 1] % size;
+		int player = cells[moves[count - 1]];
+		return isExactlyFive(x, y, 0, 1, player) || isExactlyFive(x, y, 1, 0, player)
+				|| isExactlyFive(x, y, 1, 1, player) || isExactlyFive(x, y, 1, -1, player);
 	}
 
-	public boolean isVisited() {
-		return visited;
+	// Verificar si hay exactamente cinco consecutivos en la dirección dada
+	private boolean isExactlyFive(int x, int y, int dx, int dy, int player) {
+		int totalCount = countConsecutive(x, y, dx, dy, player) + countConsecutive(x, y, -dx, -dy, player) - 1;
+		return totalCount == 5;
 	}
 
-	public void setValue(int value) {
-		this.value = value;
+	// Método auxiliar para contar consecutivos en una dirección dada
+	private int countConsecutive(int x, int y, int dx, int dy, int player) {
+		int count = 0;
+		while (x >= 0 && x < size && y >= 0 && y < size && cells[x * size + y] == player) {
+			count++;
+			x += dx;
+			y += dy;
+		}
+		return count;
 	}
-}
\ No newline at end of file
+}
@@ -150,6 +150,23 @@ public abstract class Player implements Serializable{
     	}
     }
     
+    /**
+     * Notifies the player of a move that was just played on the board, by any of the players.
+     * Players that keep thinking between their turns override it; by default it does nothing.
+     *
+     * @param row    The row of the move.
+     * @param column The column of the move.
+     */
+    public void moveMade(int row, int column) {
+    }
+
+    /**
+     * Notifies the player that its game finished, so it stops thinking in the background.
+     * By default it does nothing.
+     */
+    public void gameFinished() {
+    }
+    
     /**
      * Retrieves the type of the token that the player will play.
      *
@@ -291,10 +308,12 @@ public abstract class Player implements Serializable{
 	/**
      * Sets the player as the winner at the specified row and column.
      *
-     * @param row    The row coordinate of the winning move.
-     * @param column The column coordinate of the winning move.
+     * @param r The row coordinate of the winning move.
+     * @param c The column coordinate of the winning move.
      */
 	public void setWinner(int r, int c) {
-		game.setWinner(r, c);
+		// El ganador es este jugador, no el del turno en curso
+		if (game.getBoard().validate(r, c))
+			game.setWinner(name);
 	}
 }
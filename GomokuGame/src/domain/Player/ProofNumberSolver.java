@@ -0,0 +1,483 @@
+package domain.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.SubmissionPublisher;
+
+import domain.BitBoard;
+import domain.Zobrist;
+
+/**
+ * The ProofNumberSolver class solves a position outright with depth first
+ * proof number search (df-pn): it answers if the player to move wins, loses or
+ * draws under the exact-five rule, a line of stones whose values add up to
+ * exactly 5, playing every empty square and not only the forcing ones.
+ *
+ * The solver first tries to prove a win of the player to move, and if that is
+ * disproved, a win of its opponent; when both are disproved the position is a
+ * draw. The only moves left out are the ones that are never needed: a player
+ * that can complete five does, and a player whose opponent can complete five
+ * must block that square.
+ *
+ * The proof and disproof numbers of the searched positions are kept in a table
+ * with a fixed memory budget; when two positions collide the one with the larger
+ * searched subtree stays. The table can be saved to a file every so many nodes,
+ * and a later solver for the same position loads it and goes on where the last
+ * one stopped. Every report interval the solver publishes the visited nodes and
+ * the current proof and disproof numbers of the root, {nodes, pn, dn}, to its
+ * subscribers. The publication is closed when solve ends, with the error of
+ * the store if it could not be written.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class ProofNumberSolver extends SubmissionPublisher<long[]> {
+
+	public static final int LOSS = -1;
+	public static final int DRAW = 0;
+	public static final int WIN = 1;
+	public static final int UNKNOWN = 2;
+
+	private static final int PAD = 1;
+	private static final int EMPTY = -1;
+	private static final int BORDER = -2;
+	private static final int INFINITY = 100000000;
+	private static final int PROVED = 0;
+	private static final int DISPROVED = 1;
+	private static final int UNDECIDED = 2;
+	private static final int ENTRY_BYTES = 20;
+	private static final int MAGIC = 0x50524F46;
+
+	private int size;
+	private int width;
+	private int[] owner;
+	private int[] value;
+	private int[] directions;
+	private int player;
+	private int side;
+	private long[][] keys;
+	private long hash;
+	private long rootHash;
+	private int[][] moves;
+	private int[][] proofs;
+	private int[][] disproofs;
+	private int[] rootMove = new int[2];
+
+	// Tabla de nodos: llave, numero de prueba, numero de refutacion y tamano del subarbol
+	private long[] tableKeys;
+	private int[] tablePn;
+	private int[] tableDn;
+	private int[] tableWork;
+
+	private long nodes;
+	private long nodeLimit = Long.MAX_VALUE;
+	private long reportInterval = 100000;
+	private long checkpoint = 0;
+	private String store;
+	private boolean stopped;
+	private IOException failure;
+	private int rootPn;
+	private int rootDn;
+	private int resultPn;
+	private int resultDn;
+	private int[] bestMove;
+
+	/**
+	 * Creates a solver for the position of a bitboard.
+	 *
+	 * @param bits   The bitboard of the position.
+	 * @param player The index of the player to move.
+	 * @param memory The number of bytes the node table may use.
+	 */
+	public ProofNumberSolver(BitBoard bits, int player, long memory) {
+		this.size = bits.getSize();
+		this.width = size + 2 * PAD;
+		this.owner = new int[width * width];
+		this.value = new int[width * width];
+		this.directions = new int[] { 1, width, width + 1, width - 1 };
+		this.player = player;
+		this.side = player;
+		this.keys = new long[2][owner.length];
+		for (int i = 0; i < owner.length; i++) {
+			owner[i] = BORDER;
+		}
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int square = (row + PAD) * width + column + PAD;
+				owner[square] = bits.getOwner(row, column);
+				value[square] = bits.getValue(row, column);
+				if (owner[square] >= 0)
+					hash ^= Zobrist.key(square, owner[square], Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+			}
+		}
+		for (int square = 0; square < owner.length; square++) {
+			keys[0][square] = Zobrist.key(square, 0, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+			keys[1][square] = Zobrist.key(square, 1, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+		}
+		this.rootHash = hash ^ player;
+		this.moves = new int[size * size + 1][];
+		this.proofs = new int[size * size + 1][];
+		this.disproofs = new int[size * size + 1][];
+		int entries = Integer.highestOneBit((int) Math.max(1024, Math.min(1 << 30, memory / ENTRY_BYTES)));
+		tableKeys = new long[entries];
+		tablePn = new int[entries];
+		tableDn = new int[entries];
+		tableWork = new int[entries];
+	}
+
+	/**
+	 * Sets the file where the node table is saved and loaded from, so a long
+	 * solve can be stopped and resumed.
+	 *
+	 * @param fileName   The path of the file.
+	 * @param everyNodes The number of nodes between two saves, 0 to save only at the end.
+	 */
+	public void setStore(String fileName, long everyNodes) {
+		store = fileName;
+		checkpoint = everyNodes;
+	}
+
+	/**
+	 * Sets the number of nodes between two progress reports.
+	 *
+	 * @param everyNodes The number of nodes.
+	 */
+	public void setReportInterval(long everyNodes) {
+		reportInterval = everyNodes;
+	}
+
+	/**
+	 * Sets the number of nodes after which the solver stops and answers UNKNOWN.
+	 *
+	 * @param limit The maximum number of nodes of a call to solve.
+	 */
+	public void setNodeLimit(long limit) {
+		nodeLimit = limit;
+	}
+
+	/**
+	 * Solves the position. When it ends the publication is closed, so the progress
+	 * of a later call is no longer published.
+	 *
+	 * @return WIN, LOSS or DRAW for the player to move, or UNKNOWN if the node limit was reached first.
+	 */
+	public int solve() {
+		load();
+		nodes = 0;
+		stopped = false;
+		bestMove = null;
+		int result;
+		int win = prove(player);
+		if (win == PROVED) {
+			result = WIN;
+		} else if (win == UNDECIDED) {
+			result = UNKNOWN;
+		} else {
+			int loss = prove(1 - player);
+			result = loss == PROVED ? LOSS : loss == DISPROVED ? DRAW : UNKNOWN;
+		}
+		save();
+		if (failure != null)
+			closeExceptionally(failure);
+		else
+			close();
+		return result;
+	}
+
+	/**
+	 * Retrieves the first move of the proven win.
+	 *
+	 * @return The row and column of the move, or null if the last solve was not a win.
+	 */
+	public int[] getBestMove() {
+		return bestMove;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Runs df-pn from the root until the win of attacker is proven or disproved,
+	 * or the node limit is reached.
+	 *
+	 * @return PROVED, DISPROVED or UNDECIDED.
+	 */
+	private int prove(int attacker) {
+		mid(attacker, INFINITY, INFINITY, 0);
+		if (rootPn == 0 && side == attacker && rootMove[0] >= 0)
+			bestMove = rootMove.clone();
+		return rootPn == 0 ? PROVED : rootDn == 0 ? DISPROVED : UNDECIDED;
+	}
+
+	/**
+	 * Multiple iterative deepening step of df-pn: searches the node of the side to
+	 * move until its proof number reaches proofLimit or its disproof number reaches
+	 * disproofLimit, and stores the numbers found. They are also left in resultPn
+	 * and resultDn, so the caller does not depend on the entry surviving in the
+	 * table. Sums stop at INFINITY - 1, so only a proven or disproved node reaches
+	 * INFINITY.
+	 */
+	private void mid(int attacker, int proofLimit, int disproofLimit, int ply) {
+		long start = nodes;
+		nodes++;
+		if (nodes % reportInterval == 0 && !isClosed())
+			submit(new long[] { nodes, rootPn, rootDn });
+		if (checkpoint > 0 && nodes % checkpoint == 0)
+			save();
+		if (nodes >= nodeLimit)
+			stopped = true;
+		boolean or = side == attacker;
+		long key = hash ^ side ^ ((long) attacker << 1);
+		int count = canWin(attacker) ? generate(ply) : 0;
+		int pn;
+		int dn;
+		if (count <= 0) {
+			// -1: quien juega gana, -2: quien juega pierde, 0: el atacante ya no puede ganar
+			boolean attackerWins = count == -1 ? or : count == -2 && !or;
+			pn = attackerWins ? 0 : INFINITY;
+			dn = attackerWins ? INFINITY : 0;
+			store(key, pn, dn, 1);
+			report(ply, pn, dn, count == -1 ? moves[ply][0] : -1);
+			resultPn = pn;
+			resultDn = dn;
+			return;
+		}
+		int[] list = moves[ply];
+		if (proofs[ply] == null) {
+			proofs[ply] = new int[size * size];
+			disproofs[ply] = new int[size * size];
+		}
+		// Los numeros de los hijos se leen de la tabla una vez y despues se toman de cada busqueda
+		int[] proof = proofs[ply];
+		int[] disproof = disproofs[ply];
+		for (int i = 0; i < count; i++) {
+			long childKey = hash ^ keys[side][list[i]] ^ (1 - side) ^ ((long) attacker << 1);
+			int index = index(childKey);
+			boolean known = tableKeys[index] == childKey;
+			proof[i] = known ? tablePn[index] : 1;
+			disproof[i] = known ? tableDn[index] : 1;
+		}
+		while (true) {
+			int best = -1;
+			int bestValue = INFINITY + 1;
+			int second = INFINITY;
+			int sum = 0;
+			for (int i = 0; i < count; i++) {
+				int selected = or ? proof[i] : disproof[i];
+				int term = or ? disproof[i] : proof[i];
+				sum = sum == INFINITY || term == INFINITY ? INFINITY : Math.min(INFINITY - 1, sum + term);
+				if (selected < bestValue) {
+					second = Math.min(INFINITY, bestValue);
+					bestValue = selected;
+					best = i;
+				} else if (selected < second) {
+					second = selected;
+				}
+			}
+			pn = or ? bestValue : sum;
+			dn = or ? sum : bestValue;
+			report(ply, pn, dn, list[best]);
+			if (pn >= proofLimit || dn >= disproofLimit || pn == 0 || dn == 0 || stopped)
+				break;
+			int childProof;
+			int childDisproof;
+			if (or) {
+				childProof = Math.min(proofLimit, second + 1);
+				childDisproof = Math.min(INFINITY, disproofLimit - dn + disproof[best]);
+			} else {
+				childDisproof = Math.min(disproofLimit, second + 1);
+				childProof = Math.min(INFINITY, proofLimit - pn + proof[best]);
+			}
+			place(list[best]);
+			mid(attacker, childProof, childDisproof, ply + 1);
+			remove(list[best]);
+			proof[best] = resultPn;
+			disproof[best] = resultDn;
+		}
+		store(key, pn, dn, (int) Math.min(Integer.MAX_VALUE, nodes - start));
+		resultPn = pn;
+		resultDn = dn;
+	}
+
+	/**
+	 * Writes the moves of the side to move at a ply in moves[ply].
+	 *
+	 * @return The number of moves, -1 if the side to move completes five (the
+	 *         square is left in moves[ply][0]), -2 if it can not stop two fives of
+	 *         its opponent, or 0 if the board is full.
+	 */
+	private int generate(int ply) {
+		int rival = 1 - side;
+		int block = -1;
+		int blocks = 0;
+		int count = 0;
+		if (moves[ply] == null)
+			moves[ply] = new int[size * size];
+		for (int square = 0; square < owner.length; square++) {
+			if (owner[square] != EMPTY)
+				continue;
+			if (isFive(side, square)) {
+				moves[ply][0] = square;
+				return -1;
+			}
+			if (isFive(rival, square)) {
+				block = square;
+				blocks++;
+			}
+			count++;
+		}
+		if (blocks >= 2)
+			return -2;
+		if (blocks == 1) {
+			moves[ply][0] = block;
+			return 1;
+		}
+		int index = 0;
+		for (int square = 0; square < owner.length && index < count; square++) {
+			if (owner[square] == EMPTY)
+				moves[ply][index++] = square;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks if a player can still make five: some stretch of a line without rival
+	 * stones must hold a value of 5 once its empty squares get normal stones.
+	 */
+	private boolean canWin(int player) {
+		for (int d : directions) {
+			for (int square = 0; square < owner.length; square++) {
+				if (owner[square] != player && owner[square] != EMPTY)
+					continue;
+				int previous = owner[square - d];
+				if (previous == player || previous == EMPTY)
+					continue;
+				int total = 0;
+				for (int s = square; owner[s] == player || owner[s] == EMPTY; s += d) {
+					total += owner[s] == EMPTY ? 1 : value[s];
+				}
+				if (total >= 5)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	// Guarda en la raiz los numeros y la jugada elegida
+	private void report(int ply, int pn, int dn, int square) {
+		if (ply != 0)
+			return;
+		rootPn = pn;
+		rootDn = dn;
+		rootMove[0] = square < 0 ? -1 : square / width - PAD;
+		rootMove[1] = square < 0 ? -1 : square % width - PAD;
+	}
+
+	// Jugar en la casilla vacia square hace una linea de valor exactamente 5
+	private boolean isFive(int player, int square) {
+		for (int d : directions) {
+			int total = 1;
+			for (int s = square + d; owner[s] == player; s += d)
+				total += value[s];
+			for (int s = square - d; owner[s] == player; s -= d)
+				total += value[s];
+			if (total == 5)
+				return true;
+		}
+		return false;
+	}
+
+	private void place(int square) {
+		owner[square] = side;
+		value[square] = 1;
+		hash ^= keys[side][square];
+		side = 1 - side;
+	}
+
+	private void remove(int square) {
+		side = 1 - side;
+		hash ^= keys[side][square];
+		owner[square] = EMPTY;
+		value[square] = 0;
+	}
+
+	private int index(long key) {
+		return (int) (key ^ (key >>> 32)) & (tableKeys.length - 1);
+	}
+
+	/**
+	 * Stores the numbers of a node. An entry of another position is only replaced
+	 * when it was searched with fewer nodes.
+	 */
+	private void store(long key, int pn, int dn, int work) {
+		int index = index(key);
+		if (tableKeys[index] != key && tableKeys[index] != 0 && tableWork[index] > work)
+			return;
+		tableKeys[index] = key;
+		tablePn[index] = pn;
+		tableDn[index] = dn;
+		tableWork[index] = work;
+	}
+
+	/**
+	 * Writes the node table to the store file, through a temporary file so an
+	 * interrupted save never leaves a broken store. A failure is kept and reported
+	 * to the subscribers when solve ends.
+	 */
+	private void save() {
+		if (store == null)
+			return;
+		File file = new File(store);
+		File temporary = new File(store + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(size);
+			out.writeLong(rootHash);
+			out.writeInt(tableKeys.length);
+			for (int i = 0; i < tableKeys.length; i++) {
+				if (tableKeys[i] == 0)
+					continue;
+				out.writeInt(i);
+				out.writeLong(tableKeys[i]);
+				out.writeInt(tablePn[i]);
+				out.writeInt(tableDn[i]);
+				out.writeInt(tableWork[i]);
+			}
+			out.writeInt(-1);
+		} catch (IOException e) {
+			failure = e;
+			return;
+		}
+		if (file.exists() && !file.delete() || !temporary.renameTo(file))
+			failure = new IOException("The store could not be written: " + store);
+	}
+
+	/**
+	 * Loads the node table from the store file when it belongs to the same position.
+	 */
+	private void load() {
+		if (store == null || !new File(store).exists())
+			return;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(store)))) {
+			if (in.readInt() != MAGIC || in.readInt() != size || in.readLong() != rootHash)
+				return;
+			in.readInt();
+			for (int i = in.readInt(); i >= 0; i = in.readInt()) {
+				long key = in.readLong();
+				int pn = in.readInt();
+				int dn = in.readInt();
+				int work = in.readInt();
+				store(key, pn, dn, work);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
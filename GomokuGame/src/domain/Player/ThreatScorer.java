@@ -0,0 +1,266 @@
+package domain.Player;
+
+import domain.BitBoard;
+
+/**
+ * The ThreatScorer class keeps a heat map that scores the squares of the board by
+ * the lines of stones of one player that reach them, the heuristic of the expert
+ * and the aggressive machine players.
+ *
+ * Starting at the first stone of every line, each of the eight directions is
+ * walked until an opponent stone, the edge, a square already walked in that
+ * direction or four squares past the last stone of the player. Every empty
+ * square of the walk gets distances ^ stones, where distances adds 5 minus the
+ * distance to each stone of its five square window and stones adds their values
+ * (one more from three on). The square root of that is used when the walk is
+ * blocked at either end.
+ *
+ * A walk only meets walks of the same line and direction, so the score of every
+ * square is the sum of what each of the four lines through it gives, and the map
+ * is kept between calls: an update compares the board with the one of the last
+ * call and walks again only the lines through the squares that changed, whether
+ * a stone was placed or removed (by a mine, a temporary token or an overlap).
+ * All the state is in flat primitive arrays allocated once, so an update does
+ * not allocate.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+class ThreatScorer {
+
+	// Paso en filas y columnas de cada eje: horizontal, vertical, diagonal y antidiagonal
+	private static final int[][] AXES = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+	private int size;
+	private int player;
+	private boolean edgeBlocks;
+	private int[] values;
+	private int[] scores;
+	// Lo que aporta cada linea a cada casilla, por eje
+	private long[][] lineScores;
+	private boolean[][] dirty;
+	private boolean started;
+	private int[] line;
+	private boolean[] walked;
+	private int[] path;
+	private int[] lastStone;
+	private boolean[] blocked;
+
+	/**
+	 * Creates a scorer for boards of the given size.
+	 *
+	 * @param size       The size of the board.
+	 * @param player     The board index of the player whose lines are scored.
+	 * @param edgeBlocks True if the edge of the board behind the first stone of a
+	 *                   line blocks it, as an opponent stone does.
+	 */
+	public ThreatScorer(int size, int player, boolean edgeBlocks) {
+		this.size = size;
+		this.player = player;
+		this.edgeBlocks = edgeBlocks;
+		this.values = new int[size * size];
+		this.scores = new int[size * size];
+		this.lineScores = new long[AXES.length][size * size];
+		this.dirty = new boolean[AXES.length][2 * size - 1];
+		this.line = new int[size];
+		this.walked = new boolean[size];
+		this.path = new int[size];
+		this.lastStone = new int[size];
+		this.blocked = new boolean[size];
+	}
+
+	/**
+	 * Checks if the scorer works for the given board size and player.
+	 *
+	 * @param size   The size of the board.
+	 * @param player The board index of the player whose lines are scored.
+	 * @return True if the scorer can be updated for them.
+	 */
+	public boolean fits(int size, int player) {
+		return this.size == size && this.player == player;
+	}
+
+	/**
+	 * Brings the heat map up to date with the board, walking again only the lines
+	 * through the squares that changed since the last update.
+	 *
+	 * @param bits The board.
+	 * @return The scores, indexed by row * size + column. The array belongs to the
+	 *         scorer and changes with the next update.
+	 */
+	public int[] update(BitBoard bits) {
+		boolean any = false;
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int square = row * size + column;
+				int owner = bits.getOwner(row, column);
+				int value = owner == -1 ? 0 : owner == player ? bits.getValue(row, column) : -bits.getValue(row, column);
+				if (value != values[square] || !started) {
+					values[square] = value;
+					dirty[0][row] = true;
+					dirty[1][column] = true;
+					dirty[2][row - column + size - 1] = true;
+					dirty[3][row + column] = true;
+					any = true;
+				}
+			}
+		}
+		started = true;
+		if (!any)
+			return scores;
+		for (int axis = 0; axis < AXES.length; axis++) {
+			for (int index = 0; index < 2 * size - 1; index++) {
+				if (dirty[axis][index])
+					scoreLine(axis, index);
+			}
+		}
+		for (int axis = 0; axis < AXES.length; axis++) {
+			for (int index = 0; index < 2 * size - 1; index++) {
+				if (!dirty[axis][index])
+					continue;
+				dirty[axis][index] = false;
+				int length = lineSquares(axis, index);
+				for (int t = 0; t < length; t++) {
+					int square = line[t];
+					long total = lineScores[0][square] + lineScores[1][square] + lineScores[2][square]
+							+ lineScores[3][square];
+					scores[square] = (int) Math.min(total, Integer.MAX_VALUE);
+				}
+			}
+		}
+		return scores;
+	}
+
+	/*
+	 * Walks again a line in both directions, starting from its stones in board order,
+	 * and keeps what it gives to each of its squares.
+	 */
+	private void scoreLine(int axis, int index) {
+		int length = lineSquares(axis, index);
+		for (int t = 0; t < length; t++) {
+			lineScores[axis][line[t]] = 0;
+		}
+		for (int step = 1; step >= -1; step -= 2) {
+			for (int t = 0; t < length; t++) {
+				walked[t] = false;
+			}
+			for (int t = 0; t < length; t++) {
+				if (values[line[t]] <= 0)
+					continue;
+				int first = first(t, step, length);
+				if (first >= 0)
+					walk(axis, t, step, length, first == 1);
+			}
+		}
+	}
+
+	/*
+	 * Fills line with the squares of a line in board order and returns its length.
+	 * Rows and columns are indexed by their number, diagonals by row - column + size - 1
+	 * and antidiagonals by row + column.
+	 */
+	private int lineSquares(int axis, int index) {
+		int row;
+		int column;
+		if (axis == 0) {
+			if (index >= size)
+				return 0;
+			row = index;
+			column = 0;
+		} else if (axis == 1) {
+			if (index >= size)
+				return 0;
+			row = 0;
+			column = index;
+		} else if (axis == 2) {
+			row = Math.max(index - (size - 1), 0);
+			column = row - (index - (size - 1));
+		} else {
+			row = Math.max(index - (size - 1), 0);
+			column = index - row;
+		}
+		int length = 0;
+		while (row < size && column >= 0 && column < size) {
+			line[length++] = row * size + column;
+			row += AXES[axis][0];
+			column += AXES[axis][1];
+		}
+		return length;
+	}
+
+	/*
+	 * Looks up to four squares behind a stone: -1 if another stone of the player comes
+	 * first, 1 if the line is blocked behind it and 0 if it is open.
+	 */
+	private int first(int t, int step, int length) {
+		for (int i = 1; i < 5; i++) {
+			int s = t - step * i;
+			if (s < 0 || s >= length) {
+				if (edgeBlocks)
+					return 1;
+				continue;
+			}
+			int value = values[line[s]];
+			if (value > 0)
+				return -1;
+			if (value < 0)
+				return 1;
+		}
+		return 0;
+	}
+
+	/*
+	 * Walks a line from its first stone and then adds the score of every empty square
+	 * of the walk, from the last square back to the first one.
+	 */
+	private void walk(int axis, int start, int step, int length, boolean startBlocked) {
+		int count = 0;
+		int last = -1;
+		int t = start;
+		while (true) {
+			path[count] = line[t];
+			lastStone[count] = last;
+			blocked[count] = count == 0 && startBlocked;
+			count++;
+			if (last + 5 == count)
+				break;
+			if (values[line[t]] < 0) {
+				blocked[count - 1] = true;
+				break;
+			}
+			walked[t] = true;
+			int next = t + step;
+			if (next < 0 || next >= length) {
+				blocked[count - 1] = true;
+				break;
+			}
+			if (walked[next])
+				break;
+			if (values[line[t]] > 0)
+				last = count - 1;
+			t = next;
+		}
+		for (int p = count - 1; p >= 0; p--) {
+			if (lastStone[p] == -1 || values[path[p]] != 0)
+				continue;
+			int from = Math.max(p - 4, 0);
+			int to = Math.min(from + 5, count);
+			int distances = 0;
+			int stones = 0;
+			for (int k = from; k < to; k++) {
+				int stone = lastStone[k];
+				// Una ficha que sigue a otra de antes de la ventana no cuenta
+				if (values[path[k]] > 0 && (stone == -1 || !(stone < from && stone == k - 1))) {
+					distances += 5 - Math.abs(p - k);
+					stones += values[path[k]];
+				}
+			}
+			if (stones >= 3)
+				stones++;
+			double score = Math.pow(distances, stones);
+			if (blocked[to - 1] || blocked[0])
+				score = Math.sqrt(score);
+			lineScores[axis][path[p]] += (int) score;
+		}
+	}
+}
@@ -0,0 +1,480 @@
+package domain.Player;
+
+import domain.BitBoard;
+import domain.Zobrist;
+
+/**
+ * The ThreatSolver class searches the threat space of a position: it only
+ * considers forcing moves, fours (moves after which the player can complete
+ * five) and, for VCT, threes (moves after which the player can make a double
+ * four). The defender only gets the replies that can stop the threat, so the
+ * trees are small and long forced wins are found quickly.
+ *
+ * The solver works on its own copy of the board, a padded array with one
+ * entry per square, and follows the rules of the board: a player wins with a
+ * line of its stones whose values add up to exactly 5. The moves of the search
+ * are played as normal stones.
+ *
+ * A win is only reported when it is proven. When the search runs out of nodes
+ * or passes the deadline of the move the branch counts as not won. Attacker nodes that are refuted are remembered
+ * by hash and depth, so transpositions of the same threats are not searched
+ * twice.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+class ThreatSolver {
+
+	private static final int PAD = 2;
+	private static final int EMPTY = -1;
+	private static final int BORDER = -2;
+	private static final int NONE = -1;
+	private static final int LOST = -2;
+	private static final int FAIL_BITS = 14;
+
+	private static int vcfDepth = 15;
+	private static int vctDepth = 4;
+	private static int nodeLimit = 10000;
+
+	private int size;
+	private int width;
+	private int[] owner;
+	private int[] value;
+	private int[] directions;
+	private int me;
+	private long nodes;
+	private long deadline = Long.MAX_VALUE;
+	private boolean exhausted;
+	private int winSquare;
+	private long[][] keys;
+	private long hash;
+	private long[] failKeys = new long[1 << FAIL_BITS];
+	private int[] failDepths = new int[1 << FAIL_BITS];
+	// Arreglos de trabajo, para no crear ninguno por nodo
+	private int[] squares;
+	private int[] candidates;
+	private int[][] doubles;
+	private int[] lineFives = new int[8];
+	private int[] cells = new int[9];
+
+	/**
+	 * Creates a solver for the position of a bitboard.
+	 *
+	 * @param bits The bitboard of the board.
+	 * @param me   The index of the player to move.
+	 */
+	public ThreatSolver(BitBoard bits, int me) {
+		this.size = bits.getSize();
+		this.width = size + 2 * PAD;
+		this.owner = new int[width * width];
+		this.value = new int[width * width];
+		this.directions = new int[] { 1, width, width + 1, width - 1 };
+		this.me = me;
+		for (int i = 0; i < owner.length; i++) {
+			owner[i] = BORDER;
+		}
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int square = index(row, column);
+				owner[square] = bits.getOwner(row, column);
+				value[square] = bits.getValue(row, column);
+			}
+		}
+		keys = new long[2][owner.length];
+		for (int square = 0; square < owner.length; square++) {
+			for (int player = 0; player < 2; player++) {
+				keys[player][square] = Zobrist.key(square, player, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+			}
+			if (owner[square] >= 0)
+				hash ^= Zobrist.key(square, owner[square], Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+		}
+		squares = new int[owner.length];
+		candidates = new int[owner.length];
+		doubles = new int[Math.max(vcfDepth, vctDepth) + 1][32];
+	}
+
+	/**
+	 * Sets the maximum number of attacking moves of the VCF and VCT searches.
+	 *
+	 * @param vcf The depth of the VCF search.
+	 * @param vct The depth of the VCT search.
+	 */
+	public static void setDepths(int vcf, int vct) {
+		vcfDepth = vcf;
+		vctDepth = vct;
+	}
+
+	/**
+	 * Sets the number of nodes each search may visit.
+	 *
+	 * @param nodes The node budget.
+	 */
+	public static void setNodeLimit(int nodes) {
+		nodeLimit = nodes;
+	}
+
+	/**
+	 * Solves the position for the player to move: first looks for a forced win,
+	 * and if there is none but the opponent has one, for a move that stops it.
+	 *
+	 * @param deadline The value of System.nanoTime() when the search must stop.
+	 * @return The row and column of the move, or null if nothing was proven.
+	 */
+	public int[] solve(long deadline) {
+		this.deadline = deadline;
+		int square = findWin();
+		if (square == NONE)
+			square = findDefense();
+		return square == NONE ? null : new int[] { row(square), column(square) };
+	}
+
+	/**
+	 * Looks for a VCF, then for a VCT, of the player to move. Both searches share
+	 * one node budget.
+	 *
+	 * @return The first move of the win, or NONE.
+	 */
+	public int findWin() {
+		nodes = 0;
+		return win(me) ? winSquare : NONE;
+	}
+
+	/**
+	 * Looks for a move that leaves the opponent without a forced win. The
+	 * candidates are the first move of the opponent's win, the squares around it
+	 * and the fours of the player, and every one is checked by searching the
+	 * opponent's threats again. All the searches share one node budget.
+	 *
+	 * @return The defending move, or NONE if the opponent has no win or it can not be stopped.
+	 */
+	public int findDefense() {
+		int opponent = 1 - me;
+		if (allFives(opponent, squares) > 0)
+			return squares[0];
+		nodes = 0;
+		if (!win(opponent))
+			return NONE;
+		int threat = winSquare;
+		int total = 0;
+		candidates[total++] = threat;
+		for (int d : directions) {
+			for (int sign = -1; sign <= 1; sign += 2) {
+				for (int k = 1, square = threat + sign * d; k <= 4 && owner[square] != BORDER; k++, square += sign * d) {
+					if (owner[square] == EMPTY)
+						candidates[total++] = square;
+				}
+			}
+		}
+		for (int square = 0; square < owner.length; square++) {
+			if (owner[square] == EMPTY && near(me, square) && makesFive(me, square) && !contains(candidates, total, square))
+				candidates[total++] = square;
+		}
+		for (int i = 0; i < total; i++) {
+			place(me, candidates[i]);
+			boolean refuted = !win(opponent) && !exhausted;
+			remove(candidates[i]);
+			if (refuted)
+				return candidates[i];
+			if (exhausted)
+				return NONE;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Searches a forced win of a player to move, by VCF and then by VCT.
+	 */
+	private boolean win(int player) {
+		if (allFives(player, squares) > 0) {
+			winSquare = squares[0];
+			exhausted = false;
+			return true;
+		}
+		int count = allFives(1 - player, squares);
+		int forced = count == 0 ? NONE : count == 1 ? squares[0] : LOST;
+		exhausted = false;
+		if (attack(player, vcfDepth, false, forced, true))
+			return true;
+		boolean vcfExhausted = exhausted;
+		exhausted = false;
+		boolean won = attack(player, vctDepth, true, forced, true);
+		exhausted |= vcfExhausted;
+		return won;
+	}
+
+	/**
+	 * Attacker node: tries the forcing moves of the attacker. When the defender
+	 * can complete five, the attacker must block it, and the block must be a
+	 * threat too.
+	 *
+	 * @param player The attacker.
+	 * @param depth  The attacking moves left.
+	 * @param vct    True to allow threes as well as fours.
+	 * @param forced The square the attacker must take, NONE, or LOST.
+	 * @param root   True at the first move, to remember it.
+	 * @return True if the attacker has a proven win.
+	 */
+	private boolean attack(int player, int depth, boolean vct, int forced, boolean root) {
+		if (forced == LOST || depth == 0)
+			return false;
+		if (outOfBudget())
+			return false;
+		long key = hash ^ (vct ? 0x9E3779B97F4A7C15L : 0) ^ player;
+		int slot = (int) key & (failKeys.length - 1);
+		if (failKeys[slot] == key && failDepths[slot] >= depth)
+			return false;
+		int first = forced == NONE ? 0 : forced;
+		int last = forced == NONE ? owner.length - 1 : forced;
+		int[] fives = lineFives;
+		for (int square = first; square <= last; square++) {
+			if (owner[square] != EMPTY || (forced == NONE && !near(player, square)))
+				continue;
+			int potential = potential(player, square);
+			if (potential < 2 || (!vct && potential < 3))
+				continue;
+			place(player, square);
+			int count = fives(player, square, fives);
+			boolean won;
+			if (count >= 2) {
+				won = true;
+			} else if (count == 1) {
+				won = defendFour(player, depth, vct, fives[0]);
+			} else if (vct) {
+				won = defendThree(player, depth, square);
+			} else {
+				won = false;
+			}
+			remove(square);
+			if (won) {
+				if (root)
+					winSquare = square;
+				return true;
+			}
+			if (exhausted)
+				return false;
+		}
+		failKeys[slot] = key;
+		failDepths[slot] = depth;
+		return false;
+	}
+
+	/**
+	 * Defender node after a four: the defender must take the only square that
+	 * completes five.
+	 */
+	private boolean defendFour(int player, int depth, boolean vct, int block) {
+		if (outOfBudget())
+			return false;
+		int defender = 1 - player;
+		place(defender, block);
+		int[] fives = lineFives;
+		int count = fives(defender, block, fives);
+		boolean won = attack(player, depth - 1, vct, count == 0 ? NONE : count == 1 ? fives[0] : LOST, false);
+		remove(block);
+		return won;
+	}
+
+	/**
+	 * Defender node after a move that may be a three: finds the squares where the
+	 * attacker would make a double four and tries every reply that could stop
+	 * all of them, plus every four of the defender. Any other reply leaves a
+	 * double four on the board.
+	 */
+	private boolean defendThree(int player, int depth, int move) {
+		if (outOfBudget())
+			return false;
+		// La profundidad baja en cada nivel, asi que cada nivel usa su propio arreglo
+		int[] doubles = this.doubles[depth];
+		int count = 0;
+		int[] fives = lineFives;
+		for (int d : directions) {
+			for (int sign = -1; sign <= 1; sign += 2) {
+				for (int k = 1, square = move + sign * d; k <= 4 && owner[square] != BORDER; k++, square += sign * d) {
+					if (owner[square] != EMPTY)
+						continue;
+					place(player, square);
+					if (fives(player, square, fives) >= 2)
+						doubles[count++] = square;
+					remove(square);
+				}
+			}
+		}
+		if (count == 0)
+			return false;
+		int defender = 1 - player;
+		for (int square = 0; square < owner.length; square++) {
+			if (owner[square] != EMPTY)
+				continue;
+			boolean stops = true;
+			for (int i = 0; i < count && stops; i++) {
+				stops = inWindow(doubles[i], square);
+			}
+			boolean four = near(defender, square) && makesFive(defender, square);
+			if (!stops && !four)
+				continue;
+			place(defender, square);
+			if (!four && stillDouble(player, doubles, count)) {
+				remove(square);
+				continue;
+			}
+			int blocks = fives(defender, square, fives);
+			boolean won = attack(player, depth - 1, true, blocks == 0 ? NONE : blocks == 1 ? fives[0] : LOST, false);
+			remove(square);
+			if (!won || exhausted)
+				return false;
+		}
+		return true;
+	}
+
+	// Cuenta un nodo; el presupuesto se acaba con el limite de nodos o con el plazo
+	private boolean outOfBudget() {
+		if (++nodes > nodeLimit || System.nanoTime() >= deadline)
+			exhausted = true;
+		return exhausted;
+	}
+
+	/**
+	 * Collects the squares where a player completes five through the runs of a
+	 * square it has just taken.
+	 *
+	 * @return The number of squares written in fives.
+	 */
+	private int fives(int player, int square, int[] fives) {
+		int count = 0;
+		for (int d : directions) {
+			for (int sign = -1; sign <= 1; sign += 2) {
+				int end = square + sign * d;
+				while (owner[end] == player)
+					end += sign * d;
+				if (owner[end] == EMPTY && isFive(player, end) && !contains(fives, count, end))
+					fives[count++] = end;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Bounds the threat a move can make: the largest value of the player's stones
+	 * in a window of five squares through the square without rival stones. A four
+	 * needs 3 and a three needs 2.
+	 */
+	private int potential(int player, int square) {
+		int best = 0;
+		for (int d : directions) {
+			for (int k = -4; k <= 4; k++) {
+				int s = square + k * d;
+				int o = s >= 0 && s < owner.length ? owner[s] : BORDER;
+				cells[k + 4] = o == player ? value[s] : o == EMPTY || k == 0 ? 0 : -1;
+			}
+			for (int start = 0; start <= 4; start++) {
+				int total = 0;
+				for (int k = start; k < start + 5 && total >= 0; k++) {
+					total = cells[k] < 0 ? -1 : total + cells[k];
+				}
+				best = Math.max(best, total);
+			}
+		}
+		return best;
+	}
+
+	// Alguna de las casillas de doble cuatro sigue sirviendo despues de la respuesta
+	private boolean stillDouble(int player, int[] doubles, int count) {
+		for (int i = 0; i < count; i++) {
+			if (owner[doubles[i]] != EMPTY)
+				continue;
+			place(player, doubles[i]);
+			int made = fives(player, doubles[i], lineFives);
+			remove(doubles[i]);
+			if (made >= 2)
+				return true;
+		}
+		return false;
+	}
+
+	// Todas las casillas donde player completa cinco
+	private int allFives(int player, int[] fives) {
+		int count = 0;
+		for (int square = 0; square < owner.length; square++) {
+			if (owner[square] == EMPTY && isFive(player, square))
+				fives[count++] = square;
+		}
+		return count;
+	}
+
+	// Jugar en square deja a player con una casilla para completar cinco
+	private boolean makesFive(int player, int square) {
+		place(player, square);
+		int count = fives(player, square, lineFives);
+		remove(square);
+		return count > 0;
+	}
+
+	// Jugar en la casilla vacia square hace una linea de valor exactamente 5
+	private boolean isFive(int player, int square) {
+		for (int d : directions) {
+			if (1 + run(player, square, d) + run(player, square, -d) == 5)
+				return true;
+		}
+		return false;
+	}
+
+	private int run(int player, int square, int step) {
+		int total = 0;
+		for (int s = square + step; owner[s] == player; s += step)
+			total += value[s];
+		return total;
+	}
+
+	// Hay una ficha de player a distancia 1 o 2 en alguna de las ocho direcciones
+	private boolean near(int player, int square) {
+		for (int d : directions) {
+			if (owner[square + d] == player || owner[square - d] == player || owner[square + 2 * d] == player
+					|| owner[square - 2 * d] == player)
+				return true;
+		}
+		return false;
+	}
+
+	// square esta en una de las cuatro lineas de center a distancia 4 o menos
+	private boolean inWindow(int center, int square) {
+		if (square == center)
+			return true;
+		int dr = row(square) - row(center);
+		int dc = column(square) - column(center);
+		if (Math.abs(dr) > 4 || Math.abs(dc) > 4)
+			return false;
+		return dr == 0 || dc == 0 || Math.abs(dr) == Math.abs(dc);
+	}
+
+	private boolean contains(int[] squares, int count, int square) {
+		for (int i = 0; i < count; i++) {
+			if (squares[i] == square)
+				return true;
+		}
+		return false;
+	}
+
+	private void place(int player, int square) {
+		owner[square] = player;
+		value[square] = 1;
+		hash ^= keys[player][square];
+	}
+
+	private void remove(int square) {
+		hash ^= keys[owner[square]][square];
+		owner[square] = EMPTY;
+		value[square] = 0;
+	}
+
+	private int index(int row, int column) {
+		return (row + PAD) * width + column + PAD;
+	}
+
+	private int row(int square) {
+		return square / width - PAD;
+	}
+
+	private int column(int square) {
+		return square % width - PAD;
+	}
+}
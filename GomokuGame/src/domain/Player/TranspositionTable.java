@@ -0,0 +1,118 @@
+package domain.Player;
+
+/**
+ * The TranspositionTable class stores the results of already searched positions
+ * so the minimax search can reuse them when a position is reached again by a
+ * different move order. It is a fixed size table over two primitive arrays, one
+ * with the verification keys and one with the packed entries, so probing and
+ * storing never allocate.
+ *
+ * Every entry packs the score (32 bits), the best move as a square index
+ * (16 bits), the searched depth (8 bits), the bound type (2 bits) and the search
+ * generation (6 bits). The key array keeps hash ^ entry, which lets a reader
+ * detect an entry that was written by someone else between its two reads.
+ *
+ * Replacement policy: an entry is overwritten when it is empty, belongs to the
+ * same position, comes from an older search, or was searched to a smaller or
+ * equal depth than the new result.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+	public static final int NO_MOVE = 0xFFFF;
+
+	private long[] keys;
+	private long[] entries;
+	private int mask;
+	private int generation;
+
+	/**
+	 * Creates a table with 2^bits entries.
+	 *
+	 * @param bits The logarithm in base 2 of the number of entries.
+	 */
+	public TranspositionTable(int bits) {
+		keys = new long[1 << bits];
+		entries = new long[1 << bits];
+		mask = (1 << bits) - 1;
+		generation = 0;
+	}
+
+	/**
+	 * Starts a new search, the entries of previous searches become the first to be replaced.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0x3F;
+	}
+
+	/**
+	 * Looks up a position.
+	 *
+	 * @param hash The Zobrist hash of the position.
+	 * @return The packed entry, or 0 if the position is not in the table.
+	 */
+	public long probe(long hash) {
+		int index = (int) hash & mask;
+		long entry = entries[index];
+		if (entry != 0 && (keys[index] ^ entry) == hash)
+			return entry;
+		return 0;
+	}
+
+	/**
+	 * Stores the result of a search following the replacement policy.
+	 *
+	 * @param hash  The Zobrist hash of the position.
+	 * @param depth The depth searched from the position.
+	 * @param bound The bound type: EXACT, LOWER or UPPER.
+	 * @param score The score found.
+	 * @param move  The best move as a square index, or NO_MOVE.
+	 */
+	public void store(long hash, int depth, int bound, int score, int move) {
+		int index = (int) hash & mask;
+		long old = entries[index];
+		if (old != 0 && (keys[index] ^ old) != hash && generation(old) == generation && depth(old) > depth)
+			return;
+		if (move == NO_MOVE && old != 0 && (keys[index] ^ old) == hash)
+			move = move(old);
+		long entry = (score & 0xFFFFFFFFL) | ((long) (move & 0xFFFF) << 32) | ((long) (depth & 0xFF) << 48)
+				| ((long) bound << 56) | ((long) generation << 58);
+		entries[index] = entry;
+		keys[index] = hash ^ entry;
+	}
+
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = 0;
+			keys[i] = 0;
+		}
+	}
+
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	public static int move(long entry) {
+		return (int) (entry >>> 32) & 0xFFFF;
+	}
+
+	public static int depth(long entry) {
+		return (int) (entry >>> 48) & 0xFF;
+	}
+
+	public static int bound(long entry) {
+		return (int) (entry >>> 56) & 0x3;
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> 58) & 0x3F;
+	}
+}
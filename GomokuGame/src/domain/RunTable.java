@@ -0,0 +1,170 @@
+package domain;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * The RunTable class keeps, for every square and each of the four line directions,
+ * the total value of the run of same colored stones that goes through the square.
+ * The board updates the table whenever a square changes, touching only the runs
+ * next to that square, so checking for five in a row is a lookup.
+ *
+ * The table also keeps, for each player, the empty squares where a stone of the
+ * player completes five. Only the squares at the ends of the runs next to the
+ * changed square are checked again, so finding a forced move is a lookup too.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public class RunTable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// 0: horizontal, 1: vertical, 2: diagonal, 3: inverse diagonal
+	public static final int[][] DIRECTIONS = new int[][] { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+	private int size;
+	private int[][] runs;
+	private BitSet[] fives = { new BitSet(), new BitSet() };
+
+	/**
+	 * Constructs an empty RunTable for a board of the given size.
+	 *
+	 * @param size The size of the board, indicating the dimensions.
+	 */
+	public RunTable(int size) {
+		this.size = size;
+		runs = new int[DIRECTIONS.length][size * size];
+	}
+
+	/**
+	 * Updates the runs affected by a change of the specified square. The bitboard
+	 * must already contain the new state of the square.
+	 *
+	 * @param bits   The bitboard of the board.
+	 * @param row    The row of the square that changed.
+	 * @param column The column of the square that changed.
+	 */
+	public void update(BitBoard bits, int row, int column) {
+		int owner = bits.getOwner(row, column);
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			int dr = DIRECTIONS[d][0];
+			int dc = DIRECTIONS[d][1];
+			if (owner == -1) {
+				runs[d][row * size + column] = 0;
+			} else {
+				refresh(bits, d, row, column);
+			}
+			if (inside(row - dr, column - dc) && bits.getOwner(row - dr, column - dc) != owner) {
+				refresh(bits, d, row - dr, column - dc);
+			}
+			if (inside(row + dr, column + dc) && bits.getOwner(row + dr, column + dc) != owner) {
+				refresh(bits, d, row + dr, column + dc);
+			}
+		}
+		checkFive(bits, row, column);
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			for (int sign = -1; sign <= 1; sign += 2) {
+				// La primera casilla vacia despues de las fichas de ese lado
+				int r = row + sign * DIRECTIONS[d][0];
+				int c = column + sign * DIRECTIONS[d][1];
+				while (inside(r, c) && bits.getOwner(r, c) != -1) {
+					r += sign * DIRECTIONS[d][0];
+					c += sign * DIRECTIONS[d][1];
+				}
+				if (inside(r, c))
+					checkFive(bits, r, c);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the total value of the run through the specified square along a direction.
+	 *
+	 * @param direction The index of the direction in DIRECTIONS.
+	 * @param row       The row of the square.
+	 * @param column    The column of the square.
+	 * @return The total value of the run, or 0 if the square is empty.
+	 */
+	public int getRun(int direction, int row, int column) {
+		return runs[direction][row * size + column];
+	}
+
+	/**
+	 * Checks if the stone at the specified square is part of a run of value exactly 5.
+	 *
+	 * @param row    The row of the square.
+	 * @param column The column of the square.
+	 * @return True if any of the four runs through the square is worth 5, false otherwise.
+	 */
+	public boolean isFive(int row, int column) {
+		int index = row * size + column;
+		return runs[0][index] == 5 || runs[1][index] == 5 || runs[2][index] == 5 || runs[3][index] == 5;
+	}
+
+	/**
+	 * Retrieves the first empty square, in row major order, where a stone of the
+	 * player completes a run of value exactly 5.
+	 *
+	 * @param player The index of the player (0 or 1).
+	 * @return The square (row * size + column), or -1 if there is none.
+	 */
+	public int getFiveSquare(int player) {
+		return fives[player].nextSetBit(0);
+	}
+
+	/*
+	 * Checks again if the square completes five for each player: it must be empty and
+	 * join, along some direction, runs of the player worth 4 with the new stone.
+	 */
+	private void checkFive(BitBoard bits, int row, int column) {
+		int index = row * size + column;
+		for (int player = 0; player < 2; player++) {
+			boolean five = false;
+			for (int d = 0; d < DIRECTIONS.length && !five && bits.getOwner(row, column) == -1; d++) {
+				int dr = DIRECTIONS[d][0];
+				int dc = DIRECTIONS[d][1];
+				int total = 1;
+				if (inside(row - dr, column - dc) && bits.getOwner(row - dr, column - dc) == player)
+					total += runs[d][(row - dr) * size + column - dc];
+				if (inside(row + dr, column + dc) && bits.getOwner(row + dr, column + dc) == player)
+					total += runs[d][(row + dr) * size + column + dc];
+				five = total == 5;
+			}
+			fives[player].set(index, five);
+		}
+	}
+
+	/**
+	 * Recomputes the run through the given square along a direction and writes its
+	 * value in every square of the run. Empty squares are set to 0.
+	 */
+	private void refresh(BitBoard bits, int direction, int row, int column) {
+		int owner = bits.getOwner(row, column);
+		if (owner == -1) {
+			runs[direction][row * size + column] = 0;
+			return;
+		}
+		int dr = DIRECTIONS[direction][0];
+		int dc = DIRECTIONS[direction][1];
+		int r = row;
+		int c = column;
+		while (inside(r - dr, c - dc) && bits.has(owner, r - dr, c - dc)) {
+			r -= dr;
+			c -= dc;
+		}
+		int total = 0;
+		int length = 0;
+		while (inside(r + dr * length, c + dc * length) && bits.has(owner, r + dr * length, c + dc * length)) {
+			total += bits.getValue(r + dr * length, c + dc * length);
+			length++;
+		}
+		for (int k = 0; k < length; k++) {
+			runs[direction][(r + dr * k) * size + c + dc * k] = total;
+		}
+	}
+
+	private boolean inside(int r, int c) {
+		return 0 <= r && r < size && 0 <= c && c < size;
+	}
+}
@@ -3,7 +3,6 @@ package domain.Square;
 import java.util.Random;
 import java.util.Set;
 
-import domain.AlertPlay;
 import domain.Board;
 import domain.GomokuException;
 import domain.Token.NormalToken;
@@ -36,13 +35,15 @@ public class GoldenSquare extends Square{
     /**
      * Performs the special action associated with the GoldenSquare when activated.
      * If it's the first activation, it sets the token and increases the quantity of a randomly selected
-     * special token for the current player. If it's the second activation (two turns later), it detaches
-     * the square from the alert play and decreases the turn count.
+     * special token for the current player; for a NormalToken the square leaves the effect bus and is
+     * scheduled for two turns later. Then it decreases the turn count, so the player plays twice, and
+     * is scheduled again for the second play, after which it is done.
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException 
      */
-    public void act() throws GomokuException {
+    public void act(int turn) throws GomokuException {
         if (creationTurn == null) {
-            creationTurn = board.getTurn();
+            creationTurn = turn;
             Set<Class<? extends Token>> tokens = Token.getTokenSubtypes();
             Random r = new Random();
             int rn = r.nextInt(tokens.size());
@@ -51,13 +52,15 @@ public class GoldenSquare extends Square{
                 String name = token.getSimpleName();
                 if (i == rn) {
                     if (!name.equals("NormalToken")) {
-                        AlertPlay.dettach(this);
+                        detachEffect();
                         creationTurn = null;
                     }
                     else {
                     	board.increasePlayerQuantity(name, 1);
                     	board.addToken(name);
                     	board.addToken(name);
+                    	detachEffect();
+                    	board.getEffects().schedule(creationTurn + 2, this);
                     }
                     board.increasePlayerQuantity(name, 1);
                     break;
@@ -67,18 +70,20 @@ public class GoldenSquare extends Square{
             setToken(token);
             board.increaseTurn();
         } else {
-            if (creationTurn + 2 == board.getTurn()) {
+            if (creationTurn + 2 == turn) {
             	Token last = board.getLastToken();
             	if (!( last instanceof NormalToken)) {
+            		// Sigue esperando una ficha normal
+            		board.getEffects().schedule(creationTurn + 2, this);
             		board.setToken(null,last.getRow(),last.getColumn());
             		throw new GomokuException(GomokuException.INVALID_TOKEN_TO_PLAY);
             	}
             	else if (( last instanceof NormalToken) && !entered) {
             		board.decreaseTurn();
                 	entered = true;
+                	board.getEffects().schedule(creationTurn + 2, this);
                 }
             	else if ((last instanceof NormalToken) && entered) {
-                	AlertPlay.dettach(this);
                 	creationTurn = null;
                 }              
             }
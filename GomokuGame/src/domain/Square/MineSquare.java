@@ -2,7 +2,6 @@ package domain.Square;
 
 import java.awt.Color;
 
-import domain.AlertPlay;
 import domain.Board;
 import domain.GomokuException;
 
@@ -29,12 +28,13 @@ public class MineSquare extends Square {
 
 	
 	/**
-     * Overrides the act() method of the Square class. Detaches the MineSquare from the observer list,
+     * Overrides the act() method of the Square class. Detaches the MineSquare from the effect bus,
      * sets its token, and removes tokens from the adjacent squares. Finally, increases the turn count on the game board.
+     * @param turn The turn in which the play that triggers the action happened.
 	 * @throws GomokuException 
      */
-	public void act() throws GomokuException {
-		AlertPlay.dettach(this);
+	public void act(int turn) throws GomokuException {
+		detachEffect();
 		setToken(token);
 		for(int i = row - 1; i <= row + 1;i++) {
 			for(int j = column - 1; j <= column + 1;j++) {
@@ -1,6 +1,5 @@
 package domain.Square;
 
-import domain.AlertPlay;
 import domain.Board;
 import domain.GomokuException;
 
@@ -25,13 +24,14 @@ public class NormalSquare extends Square {
     }
 
     /**
-     * Performs the action associated with a normal square. Detaches the square from alert observers,
+     * Performs the action associated with a normal square. Detaches the square from the effect bus,
      * sets its token, and increases the turn count on the board.
      * 
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException 
      */
-    public void act() throws GomokuException {
-    	AlertPlay.dettach(this);
+    public void act(int turn) throws GomokuException {
+    	detachEffect();
 		setToken(token);
 		
 		board.increaseTurn();
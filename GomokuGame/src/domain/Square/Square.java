@@ -9,8 +9,8 @@ import java.util.Set;
 
 import org.reflections.Reflections;
 
-import domain.AlertPlay;
 import domain.Board;
+import domain.EffectBus;
 import domain.GomokuException;
 import domain.Token.PlayToken;
 import domain.Token.Token;
@@ -31,6 +31,7 @@ public abstract class Square implements PlayToken, Serializable {
     protected Board board;
     protected int row;
     protected int column;
+    protected EffectBus.Handle effect;
 
     /**
      * Gets the set of all subclasses of the Square class using reflection.
@@ -99,7 +100,7 @@ public abstract class Square implements PlayToken, Serializable {
     }
 
     /**
-     * Sets the token on the square. If the token is not null, it attaches the square to the token and notifies observers.
+     * Sets the token on the square. If the token is not null, it attaches the token to the effect bus and publishes the play.
      *
      * @param token The token to set on the square.
      * @throws GomokuException 
@@ -109,19 +110,22 @@ public abstract class Square implements PlayToken, Serializable {
             this.token = token;
             token.setPosition(row, column);
             token.setSquare(this);
-            AlertPlay.attach(token);
-            AlertPlay.notifyObservers();
+            board.updateSquare(row, column);
+            EffectBus effects = board.getEffects();
+            token.setEffect(effects.attach(token));
+            effects.publish(board.getTurn());
         } else {
             if (this.token != null) {
             	this.token.setSquare(null);
                 this.token.setPosition(-1, -1);
             }
             this.token = token;
+            board.updateSquare(row, column);
         }
     }
 
     /**
-     * Plays the specified token on the square and attaches the square to the token, notifying observers.
+     * Plays the specified token on the square, attaching the square to the effect bus and publishing the play.
      *
      * @param token The token to play on the square.
      * @throws GomokuException 
@@ -129,8 +133,10 @@ public abstract class Square implements PlayToken, Serializable {
     public void playToken(Token token) throws GomokuException {
     	if(token.valid(this.token)) {
     		this.token = token;
-            AlertPlay.attach(this);
-            AlertPlay.notifyObservers();
+    		board.updateSquare(row, column);
+            EffectBus effects = board.getEffects();
+            effect = effects.attach(this);
+            effects.publish(board.getTurn());
     	}
         
     }
@@ -163,10 +169,20 @@ public abstract class Square implements PlayToken, Serializable {
     /**
      * Performs the action associated with playing a token on the square.
      * Subclasses must provide their own implementation of this method.
+     *
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException 
      */
     @Override
-    public abstract void act() throws GomokuException;
+    public abstract void act(int turn) throws GomokuException;
+
+    /**
+     * Detaches the effect of the square, so it does not act again until a token is played on it.
+     */
+    protected void detachEffect() {
+        if (effect != null)
+            effect.detach();
+    }
 
 	public Board getBoard() {
 		return board;
@@ -2,7 +2,6 @@ package domain.Square;
 
 import java.util.Random;
 
-import domain.AlertPlay;
 import domain.Board;
 import domain.GomokuException;
 import domain.Token.Token;
@@ -30,12 +29,13 @@ public class TeleportSquare extends Square {
 
     /**
      * Performs the teleportation action when the TeleportSquare is activated.
-     * Detaches the square from the alert play, then randomly selects an empty square
+     * Detaches the square from the effect bus, then randomly selects an empty square
      * on the board and moves the token from the current square to the selected square.
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException 
      */
-    public void act() throws GomokuException {
-        AlertPlay.dettach(this);
+    public void act(int turn) throws GomokuException {
+        detachEffect();
         Random random = new Random();
         int i = random.nextInt(0, board.getSize());
         int j = random.nextInt(0, board.getSize());
@@ -49,6 +49,7 @@ public class TeleportSquare extends Square {
         // Perform the teleportation by moving the token to the selected empty square
         Token actualToken = token;
         token = null;
+        board.updateSquare(row, column);
         board.playToken(actualToken, i, j);
     }
 }
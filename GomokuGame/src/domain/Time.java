@@ -1,115 +1,208 @@
 package domain;
 
 import java.io.Serializable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
 
 import domain.Game.Game;
 
 
 /**
  * Represents a timer for controlling the time limit in a Gomoku game.
- * Extends SubmissionPublisher to publish time remaining during the game.
- * Implements the Runnable interface to run the timer in a separate thread.
+ * Extends SubmissionPublisher to publish the fall of the flag of a player.
  * 
- * The timer runs independently for each player and publishes the remaining time at one-second intervals.
- * When the time limit is reached, it publishes the remaining time as a negative value to signal the end of the game.
+ * Only the clock of the player in turn runs. The clocks are kept as the time of
+ * each player when its clock last stopped plus the instant (System.nanoTime) in
+ * which the running one started, so the time is computed when the turn changes or
+ * when it is asked for, and not by a thread that counts it. If there is a time
+ * limit, the fall of the flag of the running clock is scheduled on a clock shared
+ * by all the games; when it falls, the remaining time is published as a negative
+ * value to signal the end of the game.
  * 
  * @see SubmissionPublisher
- * @see Runnable
  * @see Game
  * @see GomokuException
  * 
  * @author Juan Daniel Murcia - Mateo Forero Fuentes
  * @version 2.0
  */
-public class Time extends SubmissionPublisher<Integer> implements Runnable,Serializable{
+public class Time extends SubmissionPublisher<Integer> implements Serializable{
+
+	// Un solo hilo para los relojes de todos los juegos, que solo despierta cuando cae una bandera
+	private static final ScheduledThreadPoolExecutor CLOCK = createClock();
 
 	private int limitMili;          // Time limit in milliseconds
 	private Game game;              // Reference to the associated game
-	private int deltaMili;          // Time interval for updating the timer
-	private int timePlayerOneMili;  // Remaining time for player one in milliseconds
-	private int timePlayerTwoMili;  // Remaining time for player two in milliseconds
+	private boolean limited;        // True if the clocks count down from the limit
+	private long timePlayerOneNano; // Time of player one when its clock last stopped
+	private long timePlayerTwoNano; // Time of player two when its clock last stopped
 	private boolean finish;
-	 
+	private transient boolean running;
+	private transient int side;
+	private transient long startNano;
+	private transient ScheduledFuture<?> flag;
+	private transient int generation;
+	private int fallen = -1;        // Side whose flag fell, -1 while no flag fell
+
 	 /**
 	* Constructs a Time object with the specified time limit and associated game.
-	* The timer is initialized based on the provided time limit, and the associated game is subscribed to the timer updates.
+	* The clocks are initialized based on the provided time limit, and the associated game is subscribed to the timer updates.
 	*
-	* @param limit The time limit in seconds. If set to -1, the timer runs indefinitely.
+	* @param limit The time limit in seconds. If set to -1, the clocks count the time played without limit.
 	* @param game  The associated game to which the timer will publish updates.
 	*/
 	public Time(int limit,Game game) {
 		this.limitMili = limit*1000;
 		this.game = game;
 		this.subscribe(game);
-		
         // Set up the timer based on the time limit
-		if(this.limitMili == -1000) {
+		limited = this.limitMili != -1000;
+		if(!limited) {
 			this.limitMili = 0;
-			deltaMili = 100;
-		}
-		else{
-			deltaMili = -100;
 		}
-		
-        // Initialize remaining time for both playersç
-		timePlayerOneMili = this.limitMili;
-		timePlayerTwoMili = this.limitMili;
+        // Initialize the time for both players
+		timePlayerOneNano = TimeUnit.MILLISECONDS.toNanos(this.limitMili);
+		timePlayerTwoNano = timePlayerOneNano;
 		finish = false;
 	}
-	
+
+	private static ScheduledThreadPoolExecutor createClock() {
+		ScheduledThreadPoolExecutor clock = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "gomoku-clock");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Las banderas canceladas salen de la cola en vez de esperar su turno
+		clock.setRemoveOnCancelPolicy(true);
+		return clock;
+	}
+
 	/**
-     * Runs the timer in a separate thread, updating the remaining time for each player until the game ends.
-     * Publishes updates at one-second intervals.
-     */
-	@Override
-	public void run() {
-		while(game.getWinner() == null || !finish) {
-            // Player one's turn
-			if(game.getTurn()%2 == 0) {
-				while (game.getWinner() == null && game.getTurn()%2 == 0 && timePlayerOneMili >= 0) {
-					try {
-						Thread.sleep(Math.abs(deltaMili));
-						timePlayerOneMili += deltaMili;
-						
-                        // Publish time update at one-second intervals
-						if (timePlayerOneMili%1000 == 0 && !finish) {
-							this.submit(timePlayerOneMili);
-						}
-					} catch (InterruptedException e) {
-					}
-				}
-			}
-			
-            // Player two's turn
-			else {
-				while(game.getWinner() == null && game.getTurn()%2 != 0 && timePlayerTwoMili >= 0) {
-					try {
-						Thread.sleep(Math.abs(deltaMili));
-						timePlayerTwoMili += deltaMili;
-						
-                        // Publish time update at one-second intervals
-						if (timePlayerTwoMili%1000 == 0) {
-							this.submit(timePlayerTwoMili);
-						}
-					} catch (InterruptedException e) {
-					}
-				}
-			}
-			
-            // Publish remaining time if it goes below zero
-			if(timePlayerOneMili < 0) {
-				this.submit(timePlayerOneMili);
-			}
-			if(timePlayerTwoMili < 0) {
-				this.submit(timePlayerTwoMili);
+	 * Starts the clock of the player that plays in the given turn.
+	 *
+	 * @param turn The turn of the game, even turns belong to player one.
+	 */
+	public synchronized void start(int turn) {
+		if (running || finish)
+			return;
+		running = true;
+		side = turn % 2;
+		startNano = System.nanoTime();
+		scheduleFlag();
+	}
+
+	/**
+	 * Tells the timer that a play ended. If the turn passed to the other player, the
+	 * time of the running clock is charged to its player and the other clock starts.
+	 * The clocks stop once the game has a winner.
+	 *
+	 * @param turn The turn of the game after the play.
+	 */
+	public synchronized void turnChanged(int turn) {
+		if (!running)
+			return;
+		if (game.getWinner() != null) {
+			stop();
+		} else if (turn % 2 != side) {
+			stop();
+			start(turn);
+		}
+	}
+
+	/**
+	 * Retrieves the time on the clock of the player that plays in the given turn.
+	 *
+	 * @param turn The turn of the game, even turns belong to player one.
+	 * @return The remaining time in milliseconds if there is a time limit, negative once
+	 *         the flag fell, or the time played otherwise.
+	 */
+	public synchronized int getTimeMili(int turn) {
+		long nanos = turn % 2 == 0 ? timePlayerOneNano : timePlayerTwoNano;
+		if (running && turn % 2 == side) {
+			long elapsed = System.nanoTime() - startNano;
+			nanos += limited ? -elapsed : elapsed;
+		}
+		return (int) TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * Retrieves the player whose flag fell. Once it falls no more plays are allowed.
+	 *
+	 * @return 0 for player one, 1 for player two, or -1 if no flag fell.
+	 */
+	public synchronized int getFallen() {
+		return fallen;
+	}
+
+	/**
+	 * Retrieves the remaining time of the player that plays in the given turn.
+	 *
+	 * @param turn The turn of the game, even turns belong to player one.
+	 * @return The remaining time in milliseconds, or -1 if the game has no time limit.
+	 */
+	public int getRemainingMili(int turn) {
+		if (!limited)
+			return -1;
+		return Math.max(getTimeMili(turn), 0);
+	}
+
+	// Carga el tiempo del reloj que corre a su jugador y lo detiene
+	private void stop() {
+		long elapsed = System.nanoTime() - startNano;
+		long charged = limited ? -elapsed : elapsed;
+		if (side == 0)
+			timePlayerOneNano += charged;
+		else
+			timePlayerTwoNano += charged;
+		running = false;
+		generation++;
+		if (flag != null) {
+			flag.cancel(false);
+			flag = null;
+		}
+	}
+
+	private void scheduleFlag() {
+		if (!limited)
+			return;
+		int scheduled = ++generation;
+		long remaining = side == 0 ? timePlayerOneNano : timePlayerTwoNano;
+		flag = CLOCK.schedule(() -> flagFall(scheduled), Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+	}
+
+	/*
+	 * Runs in the shared clock when the flag of the running clock is due. A flag of a
+	 * clock that stopped meanwhile is ignored.
+	 */
+	private void flagFall(int scheduled) {
+		int remaining;
+		synchronized (this) {
+			if (scheduled != generation || !running || finish)
+				return;
+			int turn = side;
+			stop();
+			long nanos = turn == 0 ? timePlayerOneNano : timePlayerTwoNano;
+			if (nanos > 0) {
+				start(turn);
+				return;
 			}
+			remaining = (int) Math.min(TimeUnit.NANOSECONDS.toMillis(nanos), -1);
+			fallen = turn;
 		}
+		this.submit(remaining);
 	}
-	
+
+	/**
+	 * Stops the clocks and closes the publication.
+	 */
 	public void finish() {
+		synchronized (this) {
+			if (running)
+				stop();
+			finish = true;
+		}
 		this.close();
-		finish = true;
 	}
-
 }
@@ -4,7 +4,6 @@ package domain.Token;
 
 import java.awt.Color;
 
-import domain.AlertPlay;
 import domain.GomokuException;
 
 
@@ -34,13 +33,14 @@ public class HeavyToken extends Token {
 
 	
 	/**
-     * Overrides the act() method of the Token class. Detaches itself from the observer list,
+     * Overrides the act() method of the Token class. Detaches itself from the effect bus,
      * shuffles the order of possible moves, and attempts to expand by playing a NormalToken in
      * one of the shuffled directions. If successful, updates the player's token count and decreases the turn count.
+     * @param turn The turn in which the play that triggers the action happened.
      */
 
-	public void act() {
-		AlertPlay.dettach(this);
+	public void act(int turn) {
+		detachEffect();
 		player.increaseScore(100);	
 	}
 	
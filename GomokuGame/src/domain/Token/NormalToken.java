@@ -2,7 +2,6 @@ package domain.Token;
 
 import java.awt.Color;
 
-import domain.AlertPlay;
 import domain.GomokuException;
 
 /**
@@ -27,11 +26,12 @@ public class NormalToken extends Token {
     }
 
     /**
-     * Performs the action associated with a normal token. Detaches the token from alert observers.
+     * Performs the action associated with a normal token. Detaches the token from the effect bus.
+     * @param turn The turn in which the play that triggers the action happened.
      */
-    public void act() {
-        // Detach from alert observers
-        AlertPlay.dettach(this);
+    public void act(int turn) {
+        // Sale del bus de efectos
+        detachEffect();
     }
     
     /**
@@ -3,7 +3,6 @@ package domain.Token;
 import java.awt.Color;
 import java.util.Random;
 
-import domain.AlertPlay;
 import domain.Board;
 import domain.GomokuException;
 import domain.Square.Square;
@@ -31,13 +30,14 @@ public class OverlapToken extends Token {
 	}
 
 	/**
-     * Performs the action associated with an overlapping token. Detaches the token from alert observers,
+     * Performs the action associated with an overlapping token. Detaches the token from the effect bus,
      * increases the player's score, and performs special actions based on the type of the overlapping token.
      * 
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException If an exception occurs during the execution of the overlapping action.
      */
-	public void act() throws GomokuException {
-		AlertPlay.dettach(this);
+	public void act(int turn) throws GomokuException {
+		detachEffect();
 		player.increaseScore(100);
 		if (otherToken == null) {
 			
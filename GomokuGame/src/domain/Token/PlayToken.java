@@ -12,7 +12,9 @@ public interface PlayToken{
 
     /**
      * Performs the action associated with playing a token in the game.
+     *
+     * @param turn The turn in which the play that triggers the action happened.
      * @throws GomokuException 
      */
-    public void act() throws GomokuException;
+    public void act(int turn) throws GomokuException;
 }
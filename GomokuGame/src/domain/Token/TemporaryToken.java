@@ -2,8 +2,6 @@
 	
 	import java.awt.Color;
 
-import domain.AlertPlay;
-import domain.Gomoku;
 import domain.GomokuException;
 	
 	/**
@@ -32,19 +30,22 @@ import domain.GomokuException;
 	
 	    /**
 	     * Performs the action associated with the temporary token.
-	     * If the creation turn is not set, it sets it to the current turn.
-	     * Otherwise, it checks whether the token should disappear after a certain number of turns and detaches it.
+	     * If the creation turn is not set, it sets it to the current turn and leaves the effect bus,
+	     * scheduling itself for three turns later. Then, if it is still on its square, it disappears.
+	     * @param turn The turn in which the play that triggers the action happened.
 	     * @throws GomokuException 
 	     */
 	    @Override
-	    public void act() throws GomokuException {
+	    public void act(int turn) throws GomokuException {
 	        if (creationTurn == null) {
 	        	player.increaseScore(100);
-	            creationTurn = Gomoku.getGomoku().getTurn();
+	            creationTurn = turn;
+	            // Solo vuelve a actuar en el turno en que desaparece
+	            detachEffect();
+	            square.getBoard().getEffects().schedule(creationTurn + 3, this);
 	        } else {
-	            if (creationTurn + 3 == Gomoku.getGomoku().getTurn()) {
+	            if (creationTurn + 3 == turn) {
 	                if (square!=null && square.getToken()==this) {
-	                	AlertPlay.dettach(this);
 	                	square.setToken(null);
 	                }
 	                	
@@ -5,6 +5,7 @@ import java.io.Serializable;
 import java.util.Set;
 import org.reflections.Reflections;
 
+import domain.EffectBus;
 import domain.GomokuException;
 import domain.Player.Player;
 import domain.Square.Square;
@@ -25,6 +26,7 @@ public abstract class Token implements PlayToken, Serializable {
     protected Player player;
     protected int value;
     protected Square square;
+    protected EffectBus.Handle effect;
     public static Set<Class<? extends Token>> subTypes = null;
 
     /**
@@ -124,4 +126,21 @@ public abstract class Token implements PlayToken, Serializable {
 	public Square getSquare() {
 		return square;
 	}
+
+	/**
+	 * Sets the handle of the effect of the token in the effect bus of its board.
+	 *
+	 * @param effect The handle given when the token was attached.
+	 */
+	public void setEffect(EffectBus.Handle effect) {
+		this.effect = effect;
+	}
+
+	/**
+	 * Detaches the effect of the token, so it does not act again.
+	 */
+	protected void detachEffect() {
+		if (effect != null)
+			effect.detach();
+	}
 }
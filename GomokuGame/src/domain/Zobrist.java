@@ -0,0 +1,56 @@
+package domain;
+
+/**
+ * The Zobrist class provides the 64-bit keys used to hash Gomoku positions.
+ * A position hash is the XOR of the keys of its stones, so it can be updated
+ * with a single XOR when a stone is placed or removed. Every key depends on the
+ * square index, the player, the type of token and the type of square, and is
+ * derived with a fixed mixing function, so the same position gets the same hash
+ * on any board instance and in any process.
+ *
+ * @author Juan Daniel Murcia - Mateo Forero Fuentes
+ * @version 2.0
+ */
+public final class Zobrist {
+
+	public static final int NORMAL_TOKEN = kind("NormalToken");
+	public static final int NORMAL_SQUARE = kind("NormalSquare");
+
+	private static final long SEED = 0x5DEECE66DL;
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Retrieves the key of a stone.
+	 *
+	 * @param square     The index of the square (row * size + column).
+	 * @param player     The index of the player (0 or 1).
+	 * @param token      The kind of the token, see {@link #kind(String)}.
+	 * @param squareType The kind of the square, see {@link #kind(String)}.
+	 * @return The 64-bit key of the stone.
+	 */
+	public static long key(int square, int player, int token, int squareType) {
+		long z = SEED + ((long) square << 1 | player) * 0x9E3779B97F4A7C15L;
+		z = mix(z ^ token);
+		z = mix(z ^ ((long) squareType << 32));
+		return z;
+	}
+
+	/**
+	 * Retrieves the kind of a token or square type from its simple class name.
+	 *
+	 * @param name The simple name of the class, for example "HeavyToken".
+	 * @return The kind used to build the keys.
+	 */
+	public static int kind(String name) {
+		return name.hashCode();
+	}
+
+	// SplitMix64 finalizer
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
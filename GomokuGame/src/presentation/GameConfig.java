@@ -330,10 +330,10 @@ public class GameConfig extends JDialog{
 				try {
 					int size = Integer.parseInt(gameSizeField.getText());
 					String mode = (String) gameMode.getSelectedItem();
-					gomoku = new Gomoku(mode, size);
+					gomoku = gui.getGames().create(mode, size);
 					parent.dispose();
 					prepareActionSetPlayersTypeAndName();
-					gui.prepareElementsGame();
+					gui.prepareElementsGame(gomoku);
 				} catch (NumberFormatException | GomokuException ex ) {
 					Log.record(ex);
 					Timer timer = new Timer(1000, new ActionListener() {
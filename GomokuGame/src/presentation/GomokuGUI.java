@@ -47,6 +47,7 @@ public class GomokuGUI extends JFrame implements Subscriber<Gomoku> {
 	public static final int WIDTH = (3 * screenSize.width) / 4;
 	public static final int HIGH = (3 * screenSize.height) / 4;
 	private static final Dimension PREFERRED_DIMENSION = new Dimension(WIDTH, HIGH);
+	private final GameRegistry games = new GameRegistry();
 	private Gomoku gomoku;
 	private Subscription subscription;
 
@@ -174,14 +175,19 @@ public class GomokuGUI extends JFrame implements Subscriber<Gomoku> {
 	
 	/**
      * Prepares the game elements of the GUI, including the game board, player information, and controls.
+     * The game shown before, if any, is finished and removed from the registry.
+     *
+     * @param gomoku The game to show.
      */
-	public void prepareElementsGame() {
-		this.gomoku = Gomoku.getGomoku();
+	public void prepareElementsGame(Gomoku gomoku) {
+		if (this.gomoku != null && this.gomoku != gomoku)
+			games.remove(this.gomoku.getId());
+		this.gomoku = gomoku;
 		gomoku.subscribe(this);
 		getContentPane().removeAll();
 		move = "NormalToken";
-		state = new GomokuState(this);
-		time = new TimeGUI();
+		state = new GomokuState(this, gomoku);
+		time = new TimeGUI(gomoku);
 		player1 = new JPanel();
 		player2 = new JPanel();
 		tokens1 = new JPanel();
@@ -427,8 +433,9 @@ public class GomokuGUI extends JFrame implements Subscriber<Gomoku> {
 				if (returnVal == JFileChooser.APPROVE_OPTION) {
 					JOptionPane.showMessageDialog(null, "You are trying to open the file with the next name: "
 							+ chooser.getSelectedFile().getName());
-					gomoku = Gomoku.cargarPartida(chooser.getSelectedFile().getAbsolutePath());
-					prepareElementsGame();
+					Gomoku loaded = games.load(chooser.getSelectedFile().getAbsolutePath());
+					if (loaded != null)
+						prepareElementsGame(loaded);
 				}
 			}
 		});
@@ -454,6 +461,15 @@ public class GomokuGUI extends JFrame implements Subscriber<Gomoku> {
 		}
 	}
 	
+	/**
+	 * Retrieves the registry of the games created from this window.
+	 *
+	 * @return The game registry.
+	 */
+	public GameRegistry getGames() {
+		return games;
+	}
+	
 	/**
 	 * Retrieves the current move selected by the player.
 	 *
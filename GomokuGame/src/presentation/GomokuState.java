@@ -72,20 +72,17 @@ public class GomokuState extends JPanel implements Subscriber<Gomoku>{
      */
     private Subscription subscription;
 
-    /**
-     * The thread responsible for updating the view of the Gomoku game state.
-     */
-    private Thread view;
 	
 	
 	/**
      * Constructs a GomokuState with the specified parent GomokuGUI.
      *
-     * @param gui The parent GomokuGUI.
+     * @param gui    The parent GomokuGUI.
+     * @param gomoku The game shown.
      */
-	public GomokuState(GomokuGUI gui) {
+	public GomokuState(GomokuGUI gui, Gomoku gomoku) {
 		this.gui = gui;
-		gomoku = Gomoku.getGomoku();
+		this.gomoku = gomoku;
 		gomoku.subscribe(this);
 		size = Math.min((3 * GomokuGUI.WIDTH) / 4, (3 * GomokuGUI.HIGH) / 4);
 		SIDE = size / gomoku.getSize();
@@ -100,8 +97,7 @@ public class GomokuState extends JPanel implements Subscriber<Gomoku>{
 		prepareActionsSquareClicked();
 		setPreferredSize(new Dimension(1 + SIDE * gomoku.getSize(), 1 + SIDE * gomoku.getSize()));
 		this.setBackground(new Color(190, 120, 50));
-		view = new Thread(gomoku);
-		view.start();
+		gomoku.start();
 	}
 	
 	
@@ -7,8 +7,10 @@ import java.util.concurrent.Flow.Subscription;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 import domain.Gomoku;
+import domain.Time;
 
 
 /**
@@ -26,20 +28,28 @@ public class TimeGUI extends JPanel implements Subscriber<Integer> {
 	private double timePlayerOne;
 	private double timePlayerTwo;
 	private Subscription subscription;
+	private Gomoku gomoku;
 	private JLabel c1;
 	private JLabel c2;
+	private Timer refresh;
 	
 	
 	/**
      * Constructs a TimeGUI to display the remaining time for each player.
+     *
+     * @param gomoku The game whose time is shown.
      */
-	public TimeGUI() {
-		Gomoku.getGomoku().getTime().subscribe(this);
+	public TimeGUI(Gomoku gomoku) {
+		this.gomoku = gomoku;
+		gomoku.getTime().subscribe(this);
 		setLayout(new GridLayout(0,2,50,0));
 		c1 = new JLabel("Time player one: "+ timePlayerOne);
 		c2 = new JLabel("Time player two: "+ timePlayerTwo);
 		add(c1);
 		add(c2);
+		// Los relojes se leen al pintar; el temporizador solo refresca la vista cada segundo
+		refresh = new Timer(1000, e -> repaint());
+		refresh.start();
 	}
 	
 	
@@ -50,6 +60,9 @@ public class TimeGUI extends JPanel implements Subscriber<Integer> {
      */
 	public void paintComponent(Graphics g) {
 		super.paintComponent(g);
+		Time time = gomoku.getTime();
+		timePlayerOne = Math.max(time.getTimeMili(0), 0) / 1000 * 1000;
+		timePlayerTwo = Math.max(time.getTimeMili(1), 0) / 1000 * 1000;
 		c1.setText("Time player one: "+ (timePlayerOne/1000));
 		c2.setText("Time player two: "+ (timePlayerTwo/1000));
 	}
@@ -70,17 +83,11 @@ public class TimeGUI extends JPanel implements Subscriber<Integer> {
 	/**
      * Implementation of the onNext method of the Subscriber interface.
      *
-     * @param item The remaining time received as an update.
+     * @param item The negative remaining time published when a flag falls.
      */
 	@Override
 	public void onNext(Integer item) {
 		subscription.request(1); 
-		if (Gomoku.getGomoku().getTurn()%2 == 0) {
-			timePlayerOne = item;
-		}
-		else {
-			timePlayerTwo = item;
-		}
 		repaint();
 	}
 	
@@ -101,6 +108,7 @@ public class TimeGUI extends JPanel implements Subscriber<Integer> {
      */
 	@Override
 	public void onComplete() {
+		refresh.stop();
 	}
 
 }
@@ -1,6 +1,9 @@
 package test;
 
 import domain.*;
+import domain.Player.MonteCarloMachinePlayer;
+import domain.Player.PerfectMachinePlayer;
+import domain.Player.ProofNumberSolver;
 import domain.Token.HeavyToken;
 import domain.Token.NormalToken;
 import domain.Token.Token;
@@ -9,6 +12,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.awt.Color;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -2270,4 +2276,562 @@ class GomokuTest {
 			assertEquals(GomokuException.INVALID_OVERLAP_SAME,e.getMessage());
 		}
 	}
+	
+	@Test
+	public void testBoardKeepsTheBitBoardWithTheTokens() {
+		try {
+			gomoku.setPlayerToken("HeavyToken");
+			gomoku.play(0, 0);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(1, 0);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(0, 1);
+			BitBoard bits = gomoku.getGame().getBoard().getBitBoard();
+			assertEquals(2, bits.count(0));
+			assertEquals(1, bits.count(1));
+			assertEquals(2, bits.getValue(0, 0));
+			assertEquals(1, bits.getValue(1, 0));
+			assertEquals(0, bits.getValue(5, 5));
+			assertEquals(1, gomoku.getGame().getBoard().getOpponentTokenPositions(new Color(255, 255, 255)).size());
+		} catch (GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+	
+	@Test
+	public void testBoardSplitsTheRunsWhenAOverlapTokenIsPlayed() {
+		try {
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(0, 0);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(5, 5);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(0, 1);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(6, 6);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(0, 2);
+			RunTable runs = gomoku.getGame().getBoard().getRunTable();
+			assertEquals(3, runs.getRun(0, 0, 0));
+			assertEquals(2, runs.getRun(2, 5, 5));
+			gomoku.setPlayerToken("OverlapToken");
+			gomoku.play(0, 1);
+			assertEquals(1, runs.getRun(0, 0, 0));
+			assertEquals(1, runs.getRun(0, 0, 1));
+			assertEquals(1, runs.getRun(0, 0, 2));
+		} catch (GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+	
+	@Test
+	public void testBoardHashDependsOnThePlayerAndTheToken() {
+		try {
+			Board board = gomoku.getGame().getBoard();
+			assertEquals(0L, board.getHash());
+			gomoku.setPlayerToken("HeavyToken");
+			gomoku.play(0, 0);
+			long heavy = Zobrist.key(0, 0, Zobrist.kind("HeavyToken"), Zobrist.NORMAL_SQUARE);
+			assertEquals(heavy, board.getHash());
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(1, 1);
+			long normal = Zobrist.key(16, 1, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE);
+			assertEquals(heavy ^ normal, board.getHash());
+			assertNotEquals(Zobrist.key(16, 0, Zobrist.NORMAL_TOKEN, Zobrist.NORMAL_SQUARE), normal);
+		} catch (GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testPerfectMachinePlayerBlocksAFive() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "PerfectMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			int[][] moves = { { 7, 3 }, { 7, 2 }, { 7, 4 }, { 0, 14 }, { 7, 5 }, { 14, 0 }, { 7, 6 } };
+			for (int[] move : moves) {
+				gomoku.play(move[0], move[1]);
+			}
+			PerfectMachinePlayer.setMaxDepth(3);
+			int[] move = gomoku.getGame().play();
+			PerfectMachinePlayer.setMaxDepth(20);
+			assertArrayEquals(new int[] { 7, 7 }, move);
+			int[][] variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			assertArrayEquals(move, variation[0]);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testExpertMachinePlayerPlaysADoubleFour() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "ExpertMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			int[][] moves = { { 7, 2 }, { 7, 3 }, { 3, 6 }, { 7, 4 }, { 0, 0 }, { 7, 5 }, { 0, 14 }, { 4, 6 }, { 14, 0 },
+					{ 5, 6 }, { 14, 14 }, { 6, 6 }, { 12, 2 } };
+			for (int[] move : moves) {
+				gomoku.play(move[0], move[1]);
+			}
+			int[] move = gomoku.getGame().play();
+			assertArrayEquals(new int[] { 7, 6 }, move);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testAggressiveMachinePlayerWinsBeforeBlocking() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "AggressiveMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			int[][] moves = { { 0, 0 }, { 7, 3 }, { 0, 1 }, { 7, 4 }, { 0, 2 }, { 7, 5 }, { 0, 3 }, { 7, 6 }, { 14, 14 } };
+			for (int[] move : moves) {
+				gomoku.play(move[0], move[1]);
+			}
+			int[] move = gomoku.getGame().play();
+			assertArrayEquals(new int[] { 7, 2 }, move);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testProofNumberSolverSolvesAnOpenThreeAndAnOpenFour() {
+		BitBoard bits = new BitBoard(15);
+		int[][] white = { { 7, 5 }, { 7, 6 }, { 7, 7 } };
+		int[][] black = { { 0, 0 }, { 0, 2 }, { 0, 4 }, { 14, 14 } };
+		for (int[] square : white) {
+			bits.place(square[0], square[1], 1, 1);
+		}
+		for (int[] square : black) {
+			bits.place(square[0], square[1], 0, 1);
+		}
+		ProofNumberSolver solver = new ProofNumberSolver(bits, 1, 1 << 20);
+		assertEquals(ProofNumberSolver.WIN, solver.solve());
+		int[] move = solver.getBestMove();
+		assertEquals(7, move[0]);
+		assertTrue(move[1] == 4 || move[1] == 8);
+		bits.place(move[0], move[1], 1, 1);
+		solver = new ProofNumberSolver(bits, 0, 1 << 20);
+		assertEquals(ProofNumberSolver.LOSS, solver.solve());
+		assertNull(solver.getBestMove());
+	}
+
+	@Test
+	void testMonteCarloMachinePlayerPlaysAnEmptySquare() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "MonteCarloMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			int[][] moves = { { 7, 7 }, { 6, 6 }, { 7, 8 } };
+			for (int[] move : moves) {
+				gomoku.play(move[0], move[1]);
+			}
+			MonteCarloMachinePlayer.setMoveTime(200);
+			MonteCarloMachinePlayer.setThreads(2);
+			int[] move = gomoku.getGame().play();
+			MonteCarloMachinePlayer.setMoveTime(1000);
+			MonteCarloMachinePlayer.setThreads(Runtime.getRuntime().availableProcessors());
+			assertTrue(move[0] >= 0 && move[0] < 15 && move[1] >= 0 && move[1] < 15);
+			for (int[] played : moves) {
+				assertFalse(played[0] == move[0] && played[1] == move[1]);
+			}
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testPerfectMachinePlayerPondersThePredictedReply() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "PerfectMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			PerfectMachinePlayer.setPondering(true);
+			PerfectMachinePlayer.setMaxDepth(4);
+			PerfectMachinePlayer.setMoveTime(200);
+			gomoku.play(7, 7);
+			int[] move = gomoku.getGame().play();
+			gomoku.play(move[0], move[1]);
+			int[][] variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			int[] reply = variation[1];
+			gomoku.play(reply[0], reply[1]);
+			int[] next = gomoku.getGame().play();
+			PerfectMachinePlayer.setPondering(false);
+			PerfectMachinePlayer.setMaxDepth(20);
+			PerfectMachinePlayer.setMoveTime(1000);
+			assertFalse(next[0] == 7 && next[1] == 7);
+			assertFalse(next[0] == move[0] && next[1] == move[1]);
+			assertFalse(next[0] == reply[0] && next[1] == reply[1]);
+			variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			assertArrayEquals(next, variation[0]);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testPerfectMachinePlayerKeepsSearchingAfterTwoMoves() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "PerfectMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			PerfectMachinePlayer.setMaxDepth(3);
+			gomoku.play(7, 7);
+			int[] first = gomoku.getGame().play();
+			gomoku.play(first[0], first[1]);
+			gomoku.play(7, 8);
+			int[] second = gomoku.getGame().play();
+			PerfectMachinePlayer.setMaxDepth(20);
+			assertFalse(second[0] == 7 && (second[1] == 7 || second[1] == 8));
+			assertFalse(second[0] == first[0] && second[1] == first[1]);
+			int[][] variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			assertArrayEquals(second, variation[0]);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testGameRegistryKeepsGamesApart() {
+		try {
+			GameRegistry registry = new GameRegistry();
+			Gomoku first = registry.create("Normal", 15);
+			Gomoku second = registry.create("Normal", 15);
+			for (Gomoku game : new Gomoku[] { first, second }) {
+				game.setPlayers("NormalPlayer", "NormalPlayer");
+				game.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+				game.setEspecialInfo(0, 0);
+			}
+			first.play(7, 7);
+			first.play(7, 8);
+			second.play(0, 0);
+			assertNotEquals(first.getId(), second.getId());
+			assertSame(first, registry.get(first.getId()));
+			assertSame(second, registry.get(second.getId()));
+			assertEquals(2, first.getTurn());
+			assertEquals(1, second.getTurn());
+			assertNull(second.getTokenColor(7, 7));
+			assertNull(first.getTokenColor(0, 0));
+			assertSame(second, registry.remove(second.getId()));
+			assertNull(registry.get(second.getId()));
+			assertEquals(1, registry.size());
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testEffectBusQueuesEventsPublishedWhileDispatching() {
+		try {
+			EffectBus bus = new EffectBus();
+			StringBuilder order = new StringBuilder();
+			EffectBus.Handle[] handles = new EffectBus.Handle[2];
+			handles[0] = bus.attach(turn -> {
+				order.append("a" + turn);
+				handles[0].detach();
+				// Publicar dentro de un efecto espera a que termine el evento en curso
+				bus.attach(next -> order.append("c" + next));
+				bus.publish(turn + 1);
+			});
+			handles[1] = bus.attach(turn -> order.append("b" + turn));
+			bus.publish(4);
+			assertEquals("a4b4b5c5", order.toString());
+			assertFalse(handles[0].isAttached());
+			assertEquals(2, bus.getActive());
+			handles[1].detach();
+			handles[1].detach();
+			assertEquals(1, bus.getActive());
+			order.setLength(0);
+			bus.publish(6);
+			assertEquals("c6", order.toString());
+		} catch (GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testTemporaryTokenWaitsInTheSchedulerUntilItDisappears() {
+		try {
+			EffectBus effects = gomoku.getGame().getBoard().getEffects();
+			gomoku.setPlayerToken("TemporaryToken");
+			gomoku.play(0, 0);
+			assertEquals(0, effects.getActive());
+			assertEquals(1, effects.getScheduled());
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(5, 5);
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(6, 6);
+			assertEquals(1, effects.getScheduled());
+			assertEquals(new Color(0, 0, 0), gomoku.getTokenColor(0, 0));
+			gomoku.setPlayerToken("NormalToken");
+			gomoku.play(7, 7);
+			assertEquals(0, effects.getScheduled());
+			assertEquals(0, effects.getActive());
+			assertNull(gomoku.getTokenColor(0, 0));
+		} catch (GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testStartedGameLoopAnswersTheHumanMoves() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "AggressiveMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			CountDownLatch first = new CountDownLatch(1);
+			CountDownLatch answers = new CountDownLatch(2);
+			gomoku.subscribe(new Flow.Subscriber<Gomoku>() {
+				private Flow.Subscription subscription;
+
+				public void onSubscribe(Flow.Subscription subscription) {
+					this.subscription = subscription;
+					subscription.request(1);
+				}
+
+				public void onNext(Gomoku item) {
+					first.countDown();
+					answers.countDown();
+					subscription.request(1);
+				}
+
+				public void onError(Throwable throwable) {
+				}
+
+				public void onComplete() {
+				}
+			});
+			gomoku.play(7, 7);
+			Thread.sleep(100);
+			// Sin arrancar el ciclo la maquina no juega
+			assertEquals(1, gomoku.getTurn());
+			gomoku.start();
+			assertTrue(first.await(10, TimeUnit.SECONDS));
+			assertEquals(2, gomoku.getTurn());
+			gomoku.play(gomoku.getTokenColor(0, 0) == null ? 0 : 14, 0);
+			assertTrue(answers.await(10, TimeUnit.SECONDS));
+			assertEquals(4, gomoku.getTurn());
+			gomoku.finish();
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException
+				| InterruptedException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testQuickTimeGameEndsWhenTheFlagFalls() {
+		try {
+			gomoku = new Gomoku("QuickTime", 15);
+			gomoku.setLimits(0, 1);
+			gomoku.setPlayers("NormalPlayer", "NormalPlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			Time time = gomoku.getTime();
+			assertTrue(time.getRemainingMili(0) <= 1000);
+			assertEquals(1000, time.getRemainingMili(1));
+			long start = System.currentTimeMillis();
+			while (gomoku.getWinner() == null && System.currentTimeMillis() - start < 10000) {
+				Thread.sleep(10);
+			}
+			assertEquals("Murcia", gomoku.getWinner());
+			assertEquals(0, time.getFallen());
+			assertEquals(0, time.getRemainingMili(0));
+			// El reloj del jugador dos nunca corrio
+			assertEquals(1000, time.getRemainingMili(1));
+			try {
+				gomoku.play(7, 7);
+				fail("A exception is expected");
+			} catch (GomokuException e) {
+				assertEquals(GomokuException.INVALID_MOVE_TIME_OVER, e.getMessage());
+			}
+			assertNull(gomoku.getTokenColor(7, 7));
+			gomoku.finish();
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException
+				| InterruptedException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testMonteCarloMachinePlayerMovesWithNoTimeLeft() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "MonteCarloMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			gomoku.play(7, 7);
+			MonteCarloMachinePlayer.setMoveTime(0);
+			int[] move = gomoku.getGame().play();
+			MonteCarloMachinePlayer.setMoveTime(1000);
+			assertNotNull(move);
+			assertNull(gomoku.getTokenColor(move[0], move[1]));
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testPerfectMachinePlayerSearchesAgainWhenTheBoardIsNotThePondered() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "PerfectMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			PerfectMachinePlayer.setPondering(true);
+			PerfectMachinePlayer.setMaxDepth(4);
+			PerfectMachinePlayer.setMoveTime(200);
+			gomoku.play(7, 7);
+			int[] move = gomoku.getGame().play();
+			gomoku.play(move[0], move[1]);
+			int[][] variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			int[] reply = variation[1];
+			// Como una ficha temporal que desaparece: el tablero ya no es el que se penso
+			gomoku.getGame().getBoard().setToken(null, 7, 7);
+			gomoku.play(reply[0], reply[1]);
+			int[] next = gomoku.getGame().play();
+			PerfectMachinePlayer.setPondering(false);
+			PerfectMachinePlayer.setMaxDepth(20);
+			PerfectMachinePlayer.setMoveTime(1000);
+			assertNull(gomoku.getTokenColor(next[0], next[1]));
+			variation = ((PerfectMachinePlayer) gomoku.getPlayerTwo()).getPrincipalVariation();
+			assertArrayEquals(next, variation[0]);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testProofNumberSolverOnlyAnswersDrawWhenBothWinsAreDisproved() {
+		BitBoard bits = new BitBoard(4);
+		ProofNumberSolver solver = new ProofNumberSolver(bits, 0, 1 << 20);
+		assertEquals(ProofNumberSolver.DRAW, solver.solve());
+		solver = new ProofNumberSolver(new BitBoard(15), 0, 1 << 20);
+		solver.setNodeLimit(1000);
+		assertEquals(ProofNumberSolver.UNKNOWN, solver.solve());
+	}
+
+	@Test
+	void testProofNumberSolverCompletesItsPublicationWhenItEnds() throws InterruptedException {
+		ProofNumberSolver solver = new ProofNumberSolver(new BitBoard(4), 0, 1 << 20);
+		CountDownLatch completed = new CountDownLatch(1);
+		solver.subscribe(new Flow.Subscriber<long[]>() {
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			public void onNext(long[] item) {
+			}
+
+			public void onError(Throwable throwable) {
+			}
+
+			public void onComplete() {
+				completed.countDown();
+			}
+		});
+		solver.solve();
+		assertTrue(completed.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testPerfectMachinePlayerStopsPonderingWhenTheGameFinishes() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "PerfectMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			PerfectMachinePlayer.setPondering(true);
+			PerfectMachinePlayer.setMaxDepth(4);
+			PerfectMachinePlayer.setMoveTime(200);
+			gomoku.play(7, 7);
+			int[] move = gomoku.getGame().play();
+			gomoku.play(move[0], move[1]);
+			boolean pondering = isPondering();
+			gomoku.finish();
+			boolean stopped = !isPondering();
+			PerfectMachinePlayer.setPondering(false);
+			PerfectMachinePlayer.setMaxDepth(20);
+			PerfectMachinePlayer.setMoveTime(1000);
+			assertTrue(pondering);
+			assertTrue(stopped);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+@Test
+	void testBoardDoesNotRegisterUnknownColors() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "NormalPlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			Board board = gomoku.getGame().getBoard();
+			assertEquals(-1, board.getPlayerIndex(new Color(255, 0, 0)));
+			assertEquals(0, board.getPlayerIndex(new Color(0, 0, 0)));
+			assertEquals(1, board.getPlayerIndex(new Color(255, 255, 255)));
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+	@Test
+	void testMonteCarloMachinePlayerSearchMakesAnOpenFour() {
+		try {
+			gomoku = new Gomoku("Normal", 15);
+			gomoku.setPlayers("NormalPlayer", "MonteCarloMachinePlayer");
+			gomoku.setPlayersInfo("Mateo", new Color(0, 0, 0), "Murcia", new Color(255, 255, 255));
+			gomoku.setEspecialInfo(0, 0);
+			int[][] moves = { { 0, 0 }, { 7, 5 }, { 0, 2 }, { 7, 6 }, { 0, 4 }, { 7, 7 }, { 14, 14 } };
+			for (int[] move : moves) {
+				gomoku.play(move[0], move[1]);
+			}
+			MonteCarloMachinePlayer.setMoveTime(500);
+			MonteCarloMachinePlayer.setThreads(2);
+			// Sin jugada forzada ni solver de amenazas: solo la busqueda
+			MonteCarloMachinePlayer player = (MonteCarloMachinePlayer) gomoku.getPlayerTwo();
+			int[] move = player.miniMax();
+			MonteCarloMachinePlayer.setMoveTime(1000);
+			MonteCarloMachinePlayer.setThreads(Runtime.getRuntime().availableProcessors());
+			assertTrue(player.getPlayouts() > 0);
+			assertEquals(7, move[0]);
+			assertTrue(move[1] == 4 || move[1] == 8);
+		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException
+				| IllegalAccessException | IllegalArgumentException | InvocationTargetException | GomokuException e) {
+			fail("A exception is not expected");
+		}
+	}
+
+		private boolean isPondering() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("gomoku-ponder"))
+				return true;
+		}
+		return false;
+	}
 }
\ No newline at end of file